@@ -0,0 +1,61 @@
+package com.example.demo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * What the timers add to every instrumented call. {@code recordResolved} is
+ * the cost on paths that resolve their meters once, like the email and mail
+ * dispatcher timers; {@code lookupAndRecord} finds the timer by name and tags
+ * on each call, as the {@code http.server.requests} and repository timers do.
+ * The {@code none} registry is the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class InstrumentationOverheadBenchmark {
+
+    @Param({ MeterRegistries.NONE, MeterRegistries.PROMETHEUS })
+    public String registry;
+
+    private MeterRegistry meterRegistry;
+    private Timer resolved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        meterRegistry = MeterRegistries.create(registry);
+        resolved = Timer.builder("email.build").register(meterRegistry);
+    }
+
+    @Benchmark
+    public void recordResolved() {
+        long start = System.nanoTime();
+        resolved.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void lookupAndRecord() {
+        long start = System.nanoTime();
+        Timer.builder("http.server.requests")
+                .tag("method", "GET")
+                .tag("uri", "/api/users/opportunities/opportunitiesGetAll")
+                .tag("status", "200")
+                .tag("outcome", "SUCCESS")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
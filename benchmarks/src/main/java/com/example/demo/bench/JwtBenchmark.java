@@ -0,0 +1,92 @@
+package com.example.demo.bench;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.demo.security.JwtTokenVerifier;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Token issue and {@link JwtTokenVerifier#verify} with and without the
+ * verified-token cache. The verifier runs without a database: its revocation
+ * sharing fails soft and revocations stay in memory, which does not affect
+ * {@code verify}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    /** Distinct tokens cycled through by the verify benchmarks. */
+    @Param({ "1000" })
+    public int tokens;
+
+    /** Verified-token cache size; 0 makes every verify a full signature check. */
+    @Param({ "0", "50000" })
+    public int cacheSize;
+
+    private SecretKey key;
+    private JwtTokenVerifier verifier;
+    private String[] issued;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        verifier = new JwtTokenVerifier();
+        set(verifier, "secret", SECRET);
+        set(verifier, "maxCachedTokens", cacheSize);
+        verifier.init();
+        issued = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            issued[i] = issue("creator" + i + "@example.com");
+        }
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return issue("creator@example.com");
+    }
+
+    @Benchmark
+    public String verify() {
+        String token = issued[next];
+        next = next + 1 == issued.length ? 0 : next + 1;
+        return verifier.verify(token);
+    }
+
+    private String issue(String subject) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.HOURS.toMillis(10)))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field declared = target.getClass().getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(target, value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.bench;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * The meter registries instrumented code is measured against: {@code none},
+ * the empty composite the application falls back to without metrics, whose
+ * meters are no-ops; and {@code prometheus}, configured like production with
+ * the percentile histograms from {@code metrics.properties}.
+ */
+public final class MeterRegistries {
+
+    public static final String NONE = "none";
+    public static final String PROMETHEUS = "prometheus";
+
+    private MeterRegistries() {
+    }
+
+    public static MeterRegistry create(String kind) {
+        switch (kind) {
+            case NONE:
+                return new CompositeMeterRegistry();
+            case PROMETHEUS:
+                PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+                registry.config().meterFilter(new MeterFilter() {
+                    @Override
+                    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                        DistributionStatisticConfig.Builder histogram = DistributionStatisticConfig.builder()
+                                .percentilesHistogram(true);
+                        if (id.getName().equals("email.render")) {
+                            histogram.maximumExpectedValue((double) Duration.ofMillis(10).toNanos());
+                        }
+                        return histogram.build().merge(config);
+                    }
+                });
+                return registry;
+            default:
+                throw new IllegalArgumentException("Unknown registry: " + kind);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.demo.model.Application;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.service.ApplicationService;
+
+/**
+ * The join behind {@code getMyApplications}: {@link ApplicationService#toDetails}
+ * over one user's applications, with the opportunities fetched from an
+ * in-memory repository in place of Mongo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MyApplicationsBenchmark {
+
+    @Param({ "10000" })
+    public int opportunityCount;
+
+    /** Applications the user has made. */
+    @Param({ "10", "200" })
+    public int applicationCount;
+
+    private SyntheticData.InMemoryRepository<PostOpportunity> opportunities;
+    private List<Application> applications;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<PostOpportunity> all = SyntheticData.opportunities(opportunityCount, 0, 7);
+        opportunities = new SyntheticData.InMemoryRepository<>(all, PostOpportunity::getId);
+        Random random = new Random(7);
+        List<String> appliedTo = new ArrayList<>(applicationCount);
+        for (int i = 0; i < applicationCount; i++) {
+            appliedTo.add(all.get(random.nextInt(all.size())).getId());
+        }
+        applications = SyntheticData.applications(appliedTo, 7);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> myApplications() {
+        return ApplicationService.toDetails(applications, opportunities::findAllById);
+    }
+}
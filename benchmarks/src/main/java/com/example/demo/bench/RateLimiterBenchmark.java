@@ -0,0 +1,70 @@
+package com.example.demo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.example.demo.ratelimit.KeyedRateLimiter;
+import com.example.demo.ratelimit.TokenBucket;
+
+/**
+ * Cost of one rate limit check: a single contended bucket, and the keyed
+ * limiter with more distinct keys than it may hold, so eviction is exercised.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    /** Distinct client keys cycled through. */
+    @Param({ "1000", "200000" })
+    public int keys;
+
+    @Param("100000")
+    public int maxKeys;
+
+    private TokenBucket bucket;
+    private KeyedRateLimiter limiter;
+    private String[] keyNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Refills faster than it drains, so every take succeeds and only the CAS is measured
+        bucket = new TokenBucket(1 << 20, 1e9);
+        limiter = new KeyedRateLimiter(10, 0.5, maxKeys);
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "10.0." + (i >>> 8) + "." + (i & 0xFF);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean tokenBucket() {
+        return bucket.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean keyedLimiter(Cursor cursor) {
+        int index = cursor.next++;
+        if (cursor.next == keyNames.length) {
+            cursor.next = 0;
+        }
+        return limiter.tryAcquire(keyNames[index]);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.bench;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import com.example.demo.model.Applicant;
+import com.example.demo.model.Application;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.model.User;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Seeded synthetic datasets of the application's own model classes and an
+ * in-memory stand-in for the Mongo repositories, so benchmarks run without a
+ * database and every run sees the same data.
+ *
+ * Documents are built as field maps and bound onto the model classes with
+ * Jackson, the same way a request body would be.
+ */
+public final class SyntheticData {
+
+    private static final String[] WORDS = { "gaming", "travel", "vlog", "tech", "review", "music", "cooking",
+            "fitness", "edit", "thumbnail", "shorts", "podcast", "series", "collab", "launch", "channel" };
+    private static final ObjectMapper BINDER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private SyntheticData() {
+    }
+
+    public static List<User> users(int count, long seed) {
+        Random random = new Random(seed);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            String channelId = "UC" + Long.toHexString(random.nextLong());
+            user.put("id", objectId(random));
+            user.put("username", "creator" + i);
+            user.put("email", "creator" + i + "@example.com");
+            user.put("password", "$2a$10$abcdefghijklmnopqrstuv");
+            user.put("userType", random.nextBoolean() ? "creator" : "editor");
+            user.put("channelName", words(random, 2));
+            user.put("channelId", channelId);
+            user.put("channelURL", "https://www.youtube.com/channel/" + channelId);
+            user.put("verified", random.nextInt(4) == 0);
+            users.add(BINDER.convertValue(user, User.class));
+        }
+        return users;
+    }
+
+    /**
+     * @param count      The number of opportunities.
+     * @param applicants The applicants embedded in each opportunity.
+     */
+    public static List<PostOpportunity> opportunities(int count, int applicants, long seed) {
+        Random random = new Random(seed);
+        List<PostOpportunity> opportunities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> opportunity = new LinkedHashMap<>();
+            opportunity.put("id", objectId(random));
+            opportunity.put("creatorId", objectId(random));
+            opportunity.put("title", words(random, 4));
+            opportunity.put("description", words(random, 40));
+            opportunity.put("email", "owner" + i + "@example.com");
+            List<Map<String, Object>> embedded = new ArrayList<>(applicants);
+            for (int j = 0; j < applicants; j++) {
+                embedded.add(applicantFields(random, j));
+            }
+            opportunity.put("applicants", embedded);
+            opportunities.add(BINDER.convertValue(opportunity, PostOpportunity.class));
+        }
+        return opportunities;
+    }
+
+    public static Applicant applicant(Random random, int index) {
+        return BINDER.convertValue(applicantFields(random, index), Applicant.class);
+    }
+
+    /**
+     * @return One user's application to each of the given opportunities.
+     */
+    public static List<Application> applications(List<String> opportunityIds, long seed) {
+        Random random = new Random(seed);
+        List<Application> applications = new ArrayList<>(opportunityIds.size());
+        for (int i = 0; i < opportunityIds.size(); i++) {
+            Application application = new Application(opportunityIds.get(i), applicant(random, i));
+            application.setId(objectId(random));
+            applications.add(application);
+        }
+        return applications;
+    }
+
+    private static Map<String, Object> applicantFields(Random random, int index) {
+        Map<String, Object> applicant = new LinkedHashMap<>();
+        applicant.put("userId", objectId(random));
+        applicant.put("name", "Applicant <" + index + "> & co");
+        applicant.put("email", "applicant" + index + "@example.com");
+        applicant.put("resumeUrl", "https://example.com/resume/" + index + "?ref=" + words(random, 1));
+        // Stored as the ISO string the frontend sends
+        applicant.put("applicationDate",
+                Instant.ofEpochMilli(1_700_000_000_000L + random.nextInt(1_000_000_000)).toString());
+        return applicant;
+    }
+
+    private static String objectId(Random random) {
+        return String.format("%024x", new java.math.BigInteger(96, random));
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * In-memory stand-in for a Spring Data repository keyed by ID.
+     */
+    public static final class InMemoryRepository<T> {
+        private final Map<String, T> byId = new HashMap<>();
+
+        public InMemoryRepository(List<T> documents, Function<T, String> idOf) {
+            for (T document : documents) {
+                byId.put(idOf.apply(document), document);
+            }
+        }
+
+        public List<T> findAllById(Iterable<String> ids) {
+            List<T> found = new ArrayList<>();
+            for (String id : ids) {
+                T document = byId.get(id);
+                if (document != null) {
+                    found.add(document);
+                }
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.wcontent.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.demo.bench.MeterRegistries;
+import com.example.demo.bench.SyntheticData;
+import com.example.demo.model.Applicant;
+
+/**
+ * The HTML bodies {@link EmailService} sends, rendered by {@link EmailBodies}:
+ * a single new-application notification, a digest with its rows, and the
+ * date formatting both use. Lives in the service package because
+ * {@link EmailBodies} is package-private.
+ *
+ * Comparing the {@code prometheus} registry against {@code none} gives the
+ * overhead of the {@code email.render} timers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EmailBodiesBenchmark {
+
+    /** Applicants in the digest. */
+    @Param({ "5", "50" })
+    public int rows;
+
+    @Param({ MeterRegistries.NONE, MeterRegistries.PROMETHEUS })
+    public String registry;
+
+    private EmailBodies bodies;
+    private List<Applicant> applicants;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bodies = new EmailBodies(MeterRegistries.create(registry));
+        Random random = new Random(11);
+        applicants = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            applicants.add(SyntheticData.applicant(random, i));
+        }
+    }
+
+    @Benchmark
+    public byte[] notificationEmail() {
+        return bodies.newApplication(applicants.get(0), "Editor needed for a \"weekly\" travel vlog");
+    }
+
+    @Benchmark
+    public byte[] digestEmail() {
+        return bodies.newApplicationsDigest(applicants, "Editor needed for a weekly travel vlog");
+    }
+
+    @Benchmark
+    public String formatDate() {
+        return EmailBodies.formatDate(applicants.get(0).getApplicationDate());
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.demo.archive;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.Application;
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.service.ContentVersions;
+import com.example.demo.service.PostingLookupService;
+import com.example.demo.service.PostingSearchService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves postings that are done with out of the hot collections, so listings
+ * and per-user scans only touch live data.
+ *
+ * Closed collaborations, filled opportunities, and either kind older than
+ * {@code archive.stale-days} are copied as they are, embedded requests and
+ * applicants included, into {@code <collection>_archive} and then removed
+ * from the hot collection. Only documents still exactly as copied are
+ * removed; one changed in between stays live, loses its archive copy and is
+ * looked at again on the next run. An opportunity's applications move to
+ * {@code applications_archive} before the opportunity itself, and once more
+ * after it for any submitted in between. Every copy is an upsert by
+ * {@code _id}, so a run interrupted between copying and removing is simply
+ * repeated. Archived documents stay readable under {@code /api/users/archive}.
+ */
+@Service
+public class PostingArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(PostingArchiver.class);
+
+    public static final String ARCHIVE_SUFFIX = "_archive";
+    private static final String ARCHIVED_AT = "archivedAt";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private PostingLookupService postingLookupService;
+    @Autowired
+    private PostingSearchService postingSearchService;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+    @Value("${archive.batch-size:100}")
+    private int batchSize;
+    @Value("${archive.batches-per-run:5}")
+    private int batchesPerRun;
+    /** Postings created longer ago than this are archived even if still open; 0 turns this off. */
+    @Value("${archive.stale-days:365}")
+    private int staleDays;
+    /** The opportunity field holding the ID of the user who posted it. */
+    @Value("${cascade.opportunity-owner-field:creatorId}")
+    private String opportunityOwnerField;
+
+    private Counter collaborationsMoved;
+    private Counter opportunitiesMoved;
+    private Counter applicationsMoved;
+
+    @PostConstruct
+    public void init() {
+        mongoTemplate.indexOps(archiveOf(Collaboration.class))
+                .ensureIndex(new Index("creatorId", Sort.Direction.ASC));
+        mongoTemplate.indexOps(archiveOf(PostOpportunity.class))
+                .ensureIndex(new Index(opportunityOwnerField, Sort.Direction.ASC));
+        mongoTemplate.indexOps(archiveOf(Application.class))
+                .ensureIndex(new Index("opportunityId", Sort.Direction.ASC));
+        mongoTemplate.indexOps(archiveOf(Application.class))
+                .ensureIndex(new Index("userId", Sort.Direction.ASC));
+        meterRegistry.ifAvailable(registry -> {
+            collaborationsMoved = Counter.builder("archive.documents.moved").tag("collection", "collaborations")
+                    .register(registry);
+            opportunitiesMoved = Counter.builder("archive.documents.moved").tag("collection", "opportunities")
+                    .register(registry);
+            applicationsMoved = Counter.builder("archive.documents.moved").tag("collection", "applications")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * @param type An entity type.
+     * @return The name of the archive collection for its collection.
+     */
+    public String archiveOf(Class<?> type) {
+        return mongoTemplate.getCollectionName(type) + ARCHIVE_SUFFIX;
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:300000}",
+            initialDelayString = "${archive.initial-delay-ms:60000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int budget = batchesPerRun;
+            while (budget > 0 && archiveCollaborationBatch() > 0) {
+                budget--;
+            }
+            budget = batchesPerRun;
+            while (budget > 0 && archiveOpportunityBatch() > 0) {
+                budget--;
+            }
+        } catch (RuntimeException e) {
+            log.error("Archiving failed, retrying on the next run", e);
+        }
+    }
+
+    private int archiveCollaborationBatch() {
+        List<Document> batch = findCandidates(Collaboration.class, Criteria.where("isOpen").is(false));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Object> ids = move(batch, Collaboration.class);
+        for (Object id : ids) {
+            postingLookupService.invalidateCollaboration(id.toString());
+            postingSearchService.removeCollaboration(id.toString());
+        }
+        contentVersions.bump(Collaboration.class);
+        increment(collaborationsMoved, ids.size());
+        return ids.size();
+    }
+
+    private int archiveOpportunityBatch() {
+        List<Document> batch = findCandidates(PostOpportunity.class, Criteria.where("isFilled").is(true));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<String> opportunityIds = new ArrayList<>(batch.size());
+        for (Document opportunity : batch) {
+            opportunityIds.add(opportunity.get("_id").toString());
+        }
+        // Applications first, so an archived opportunity never has applications left behind
+        boolean movedApplications = moveApplications(opportunityIds);
+        List<Object> ids = move(batch, PostOpportunity.class);
+        List<String> movedIds = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            movedIds.add(id.toString());
+            postingLookupService.invalidateOpportunity(id.toString());
+            postingSearchService.removeOpportunity(id.toString());
+        }
+        // Applications submitted while the opportunity was being moved
+        if (!movedIds.isEmpty() && moveApplications(movedIds)) {
+            movedApplications = true;
+        }
+        if (movedApplications) {
+            contentVersions.bump(Application.class);
+        }
+        increment(opportunitiesMoved, ids.size());
+        return ids.size();
+    }
+
+    /**
+     * Moves the applications to the given opportunities, a batch at a time.
+     *
+     * @return Whether any were moved.
+     */
+    private boolean moveApplications(List<String> opportunityIds) {
+        Query applications = Query.query(Criteria.where("opportunityId").in(opportunityIds)).limit(batchSize);
+        String hotApplications = mongoTemplate.getCollectionName(Application.class);
+        boolean movedAny = false;
+        List<Document> applicationBatch;
+        while (!(applicationBatch = mongoTemplate.find(applications, Document.class, hotApplications)).isEmpty()) {
+            int moved = move(applicationBatch, Application.class).size();
+            if (moved == 0) {
+                // All changed while being copied; left for the next run
+                break;
+            }
+            increment(applicationsMoved, moved);
+            movedAny = true;
+        }
+        return movedAny;
+    }
+
+    /**
+     * Finds the next batch of documents that are done with, or stale.
+     */
+    private List<Document> findCandidates(Class<?> type, Criteria done) {
+        Criteria criteria = done;
+        if (staleDays > 0) {
+            Date staleBefore = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(staleDays));
+            // ObjectIds carry their creation time, so no date field is needed
+            criteria = new Criteria().orOperator(done, Criteria.where("_id").lt(new ObjectId(staleBefore)));
+        }
+        Query query = Query.query(criteria).limit(batchSize);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type));
+    }
+
+    /**
+     * Copies documents into the type's archive collection, then removes them
+     * from the hot one if they have not changed since they were read.
+     *
+     * @return The IDs of the moved documents.
+     */
+    private List<Object> move(List<Document> documents, Class<?> type) {
+        Date now = new Date();
+        BulkOperations copies = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, archiveOf(type));
+        List<Object> ids = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Document copy = new Document(document);
+            copy.put(ARCHIVED_AT, now);
+            copies.replaceOne(Query.query(Criteria.where("_id").is(document.get("_id"))), copy,
+                    FindAndReplaceOptions.options().upsert());
+            ids.add(document.get("_id"));
+        }
+        copies.execute();
+
+        String hot = mongoTemplate.getCollectionName(type);
+        // Matches only documents identical to one of those read
+        Criteria unchanged = Criteria.where("$expr")
+                .is(new Document("$in", List.of("$$ROOT", new Document("$literal", documents))));
+        // Narrowed first, because the local change feed reports every listed ID as deleted
+        List<Object> unchangedIds = findIds(hot, Criteria.where("_id").in(ids), unchanged);
+        if (!unchangedIds.isEmpty()) {
+            // Removed through the entity type so the change feed sees the deletes
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(unchangedIds)).addCriteria(unchanged), type);
+        }
+        // Whatever changed stays live and must not also be in the archive
+        List<Object> kept = findIds(hot, Criteria.where("_id").in(ids));
+        if (!kept.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(kept)), archiveOf(type));
+            ids.removeAll(kept);
+        }
+        return ids;
+    }
+
+    private List<Object> findIds(String collection, Criteria... criteria) {
+        Query query = new Query();
+        for (Criteria each : criteria) {
+            query.addCriteria(each);
+        }
+        query.fields().include("_id");
+        List<Object> ids = new ArrayList<>();
+        for (Document document : mongoTemplate.find(query, Document.class, collection)) {
+            ids.add(document.get("_id"));
+        }
+        return ids;
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process {@link LookupCache} bounded by size, evicting the least recently
+ * used entry, with a time-to-live after which entries are reloaded. Loads run
+ * outside the lock, so a slow loader never blocks readers of other keys.
+ *
+ * @param <K> The key type.
+ * @param <V> The cached value type.
+ */
+public class LocalLookupCache<K, V> implements LookupCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // Bumped on every invalidation so a load that raced with one is not cached
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalLookupCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LocalLookupCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        long invalidationsAtLoad;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+            invalidationsAtLoad = invalidations;
+        }
+        misses.increment();
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                if (invalidations == invalidationsAtLoad) {
+                    entries.put(key, new Entry<>(value, now));
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+            invalidations++;
+        }
+    }
+
+    @Override
+    public long size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
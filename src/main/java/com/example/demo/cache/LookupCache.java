@@ -0,0 +1,38 @@
+package com.example.demo.cache;
+
+import java.util.function.Function;
+
+/**
+ * A read-through cache keyed by document ID. Implementations may be purely
+ * local or front a shared tier for multi-node deployments.
+ *
+ * @param <K> The key type.
+ * @param <V> The cached value type.
+ */
+public interface LookupCache<K, V> {
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     * A {@code null} result from the loader is returned but not cached.
+     *
+     * @param key    The key.
+     * @param loader Loads the value on a miss.
+     * @return The value, or {@code null} if the loader found nothing.
+     */
+    V get(K key, Function<K, V> loader);
+
+    /**
+     * Removes a key so the next read goes to the loader.
+     *
+     * @param key The key.
+     */
+    void invalidate(K key);
+
+    long size();
+
+    long hitCount();
+
+    long missCount();
+
+    long evictionCount();
+}
@@ -0,0 +1,29 @@
+package com.example.demo.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes a {@link LookupCache}'s hit, miss, eviction and size figures.
+ */
+public final class LookupCacheMetrics {
+
+    private LookupCacheMetrics() {
+    }
+
+    public static void bind(MeterRegistry registry, String cacheName, LookupCache<?, ?> cache) {
+        FunctionCounter.builder("lookup.cache.gets", cache, LookupCache::hitCount)
+                .tag("cache", cacheName).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("lookup.cache.gets", cache, LookupCache::missCount)
+                .tag("cache", cacheName).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("lookup.cache.evictions", cache, LookupCache::evictionCount)
+                .tag("cache", cacheName)
+                .register(registry);
+        Gauge.builder("lookup.cache.size", cache, LookupCache::size)
+                .tag("cache", cacheName)
+                .register(registry);
+    }
+}
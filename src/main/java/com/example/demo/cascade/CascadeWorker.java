@@ -0,0 +1,393 @@
+package com.example.demo.cascade;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.archive.PostingArchiver;
+import com.example.demo.model.Application;
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.model.User;
+import com.example.demo.service.ContentVersions;
+import com.example.demo.service.PostingLookupService;
+import com.example.demo.service.PostingSearchService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Deferred cleanup of the documents that reference a deleted user or
+ * collaboration.
+ *
+ * A delete records a tombstone in Mongo and in an in-memory set before the
+ * document itself is removed. A scheduled worker then removes the referencing
+ * documents in small batches, a bounded number of batches per run, and drops
+ * the tombstone once nothing references the ID any more. Until then, reads
+ * use {@link #excludeDeleted} and the {@code is...Deleted} checks to hide
+ * what is still waiting for cleanup.
+ *
+ * Every run re-reads the tombstones, so a delete recorded or finished on
+ * another node shows up in this node's sets within
+ * {@code cascade.interval-ms}.
+ */
+@Service
+public class CascadeWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(CascadeWorker.class);
+
+    private static final String TOMBSTONES = "tombstones";
+    private static final String USER = "user";
+    private static final String COLLABORATION = "collaboration";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private PostingLookupService postingLookupService;
+    @Autowired
+    private PostingSearchService postingSearchService;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private PostingArchiver postingArchiver;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${cascade.batch-size:100}")
+    private int batchSize;
+    @Value("${cascade.batches-per-run:5}")
+    private int batchesPerRun;
+    /** The opportunity field holding the ID of the user who posted it. */
+    @Value("${cascade.opportunity-owner-field:creatorId}")
+    private String opportunityOwnerField;
+
+    private final CompactIdSet deletedUsers = new CompactIdSet();
+    private final CompactIdSet deletedCollaborations = new CompactIdSet();
+    private final AtomicLong removedCount = new AtomicLong();
+    private volatile long oldestPendingAt;
+
+    @PostConstruct
+    public void init() {
+        syncTombstones(deletedUsers.toList(), deletedCollaborations.toList(),
+                mongoTemplate.findAll(Document.class, TOMBSTONES));
+        refreshLag();
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("cascade.pending", deletedUsers, CompactIdSet::size).tag("kind", USER).register(registry);
+            Gauge.builder("cascade.pending", deletedCollaborations, CompactIdSet::size).tag("kind", COLLABORATION)
+                    .register(registry);
+            Gauge.builder("cascade.lag.seconds", this, CascadeWorker::getLagSeconds).register(registry);
+            FunctionCounter.builder("cascade.documents.removed", removedCount, AtomicLong::get).register(registry);
+        });
+    }
+
+    /**
+     * Records a user delete. Call before removing the user document.
+     *
+     * @param userId The deleted user's ID.
+     */
+    public void recordUserDelete(String userId) {
+        record(USER, userId);
+        // The user's collaborations and applications drop out of listings now
+        contentVersions.bump(Collaboration.class);
+        contentVersions.bump(Application.class);
+    }
+
+    /**
+     * Records a collaboration delete. Call before removing the collaboration.
+     *
+     * @param collabId The deleted collaboration's ID.
+     */
+    public void recordCollaborationDelete(String collabId) {
+        record(COLLABORATION, collabId);
+    }
+
+    public boolean isUserDeleted(String userId) {
+        return deletedUsers.contains(userId);
+    }
+
+    public boolean isCollaborationDeleted(String collabId) {
+        return deletedCollaborations.contains(collabId);
+    }
+
+    /**
+     * Hides documents that are waiting for cleanup from a query. Adds nothing
+     * when no cleanup is pending.
+     *
+     * @param query     The query to restrict.
+     * @param ownerField The field holding the owning user's ID.
+     * @param ownIds    Whether the documents are collaborations, whose own IDs
+     *                  may be tombstoned.
+     * @return The same query.
+     */
+    public Query excludeDeleted(Query query, String ownerField, boolean ownIds) {
+        List<Criteria> filters = new ArrayList<>(2);
+        if (!deletedUsers.isEmpty()) {
+            filters.add(Criteria.where(ownerField).nin(deletedUsers.toList()));
+        }
+        if (ownIds && !deletedCollaborations.isEmpty()) {
+            filters.add(Criteria.where("_id").nin(toIds(deletedCollaborations.toList())));
+        }
+        if (!filters.isEmpty()) {
+            // Wrapped in $and so it never clashes with a keyset condition on _id
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        return query;
+    }
+
+    public long getPendingCount() {
+        return deletedUsers.size() + deletedCollaborations.size();
+    }
+
+    /**
+     * @return Seconds since the oldest pending tombstone was recorded, 0 when
+     *         nothing is pending.
+     */
+    public double getLagSeconds() {
+        long oldest = oldestPendingAt;
+        return oldest == 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    @Scheduled(fixedDelayString = "${cascade.interval-ms:1000}")
+    public void processPending() {
+        List<String> usersBefore = deletedUsers.toList();
+        List<String> collaborationsBefore = deletedCollaborations.toList();
+        Query pending = new Query().with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        List<Document> tombstones;
+        try {
+            tombstones = mongoTemplate.find(pending, Document.class, TOMBSTONES);
+        } catch (RuntimeException e) {
+            log.warn("Could not read cascade tombstones: {}", e.getMessage());
+            return;
+        }
+        syncTombstones(usersBefore, collaborationsBefore, tombstones);
+        if (tombstones.isEmpty()) {
+            oldestPendingAt = 0;
+            return;
+        }
+        int budget = batchesPerRun;
+        for (Document tombstone : tombstones) {
+            String kind = tombstone.getString("kind");
+            String targetId = tombstone.getString("targetId");
+            while (budget > 0) {
+                budget--;
+                long removed;
+                try {
+                    removed = USER.equals(kind) ? cleanUpUserBatch(targetId) : cleanUpCollaborationBatch(targetId);
+                } catch (RuntimeException e) {
+                    log.error("Cascade cleanup for {} {} failed, retrying on the next run", kind, targetId, e);
+                    return;
+                }
+                if (removed == 0) {
+                    mongoTemplate.remove(Query.query(Criteria.where("_id").is(tombstone.get("_id"))), TOMBSTONES);
+                    setFor(kind).remove(targetId);
+                    log.info("Cascade cleanup for {} {} finished", kind, targetId);
+                    break;
+                }
+                removedCount.addAndGet(removed);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(tombstone.get("_id"))),
+                        new Update().inc("removed", removed).currentDate("updatedAt"), TOMBSTONES);
+            }
+            if (budget == 0) {
+                break;
+            }
+        }
+        refreshLag();
+    }
+
+    /**
+     * Adds every tombstone that exists and drops the IDs that were held before
+     * the read but whose tombstone is gone, i.e. finished by another node. IDs
+     * recorded while the read ran are kept.
+     */
+    private void syncTombstones(List<String> usersBefore, List<String> collaborationsBefore,
+            List<Document> tombstones) {
+        Set<String> users = new HashSet<>();
+        Set<String> collaborations = new HashSet<>();
+        for (Document tombstone : tombstones) {
+            String kind = tombstone.getString("kind");
+            String targetId = tombstone.getString("targetId");
+            (USER.equals(kind) ? users : collaborations).add(targetId);
+            setFor(kind).add(targetId);
+        }
+        for (String id : usersBefore) {
+            if (!users.contains(id)) {
+                deletedUsers.remove(id);
+            }
+        }
+        for (String id : collaborationsBefore) {
+            if (!collaborations.contains(id)) {
+                deletedCollaborations.remove(id);
+            }
+        }
+    }
+
+    private void record(String kind, String targetId) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(kind + ":" + targetId)),
+                new Update().setOnInsert("kind", kind)
+                        .setOnInsert("targetId", targetId)
+                        .setOnInsert("createdAt", new Date())
+                        .setOnInsert("removed", 0L),
+                TOMBSTONES);
+        setFor(kind).add(targetId);
+        if (oldestPendingAt == 0) {
+            oldestPendingAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Removes one batch of whatever still references the user: their
+     * applications, then the applications to their opportunities, then the
+     * opportunities themselves, then their collaborations, and then the same
+     * in the archive.
+     *
+     * @return The number of documents removed, 0 once nothing is left.
+     */
+    private long cleanUpUserBatch(String userId) {
+        List<Object> applicationIds = findIds(Application.class, Criteria.where("userId").is(userId));
+        if (!applicationIds.isEmpty()) {
+            return removeByIds(Application.class, applicationIds);
+        }
+
+        List<Object> opportunityIds = findIds(PostOpportunity.class,
+                Criteria.where(opportunityOwnerField).is(userId));
+        if (!opportunityIds.isEmpty()) {
+            List<String> ids = toStrings(opportunityIds);
+            List<Object> received = findIds(Application.class, Criteria.where("opportunityId").in(ids));
+            if (!received.isEmpty()) {
+                return removeByIds(Application.class, received);
+            }
+            long removed = removeByIds(PostOpportunity.class, opportunityIds);
+            for (String id : ids) {
+                postingLookupService.invalidateOpportunity(id);
+                postingSearchService.removeOpportunity(id);
+            }
+            return removed;
+        }
+
+        List<Object> collabIds = findIds(Collaboration.class, Criteria.where("creatorId").is(userId));
+        if (!collabIds.isEmpty()) {
+            long removed = removeByIds(Collaboration.class, collabIds);
+            for (String id : toStrings(collabIds)) {
+                postingLookupService.invalidateCollaboration(id);
+                postingSearchService.removeCollaboration(id);
+            }
+            return removed;
+        }
+        return cleanUpArchivedUserBatch(userId);
+    }
+
+    private long cleanUpArchivedUserBatch(String userId) {
+        String applications = postingArchiver.archiveOf(Application.class);
+        List<Object> applicationIds = findIds(applications, Criteria.where("userId").is(userId));
+        if (!applicationIds.isEmpty()) {
+            return removeByIds(applications, applicationIds);
+        }
+
+        String opportunities = postingArchiver.archiveOf(PostOpportunity.class);
+        List<Object> opportunityIds = findIds(opportunities, Criteria.where(opportunityOwnerField).is(userId));
+        if (!opportunityIds.isEmpty()) {
+            List<Object> received = findIds(applications,
+                    Criteria.where("opportunityId").in(toStrings(opportunityIds)));
+            return received.isEmpty() ? removeByIds(opportunities, opportunityIds)
+                    : removeByIds(applications, received);
+        }
+
+        String collaborations = postingArchiver.archiveOf(Collaboration.class);
+        List<Object> collabIds = findIds(collaborations, Criteria.where("creatorId").is(userId));
+        return collabIds.isEmpty() ? 0 : removeByIds(collaborations, collabIds);
+    }
+
+    /**
+     * Removes an archived copy of the collaboration, then one batch of copies
+     * still embedded in users from before the creatorId migration.
+     *
+     * @return The number of documents removed or updated, 0 once nothing is
+     *         left.
+     */
+    private long cleanUpCollaborationBatch(String collabId) {
+        List<Object> matchingIds = List.of(collabId, toId(collabId));
+        long archived = removeByIds(postingArchiver.archiveOf(Collaboration.class), matchingIds);
+        if (archived > 0) {
+            return archived;
+        }
+        List<Object> userIds = findIds(User.class, Criteria.where("collaborations._id").in(matchingIds));
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(userIds)),
+                new Update().pull("collaborations", new Document("_id", new Document("$in", matchingIds))),
+                User.class).getModifiedCount();
+    }
+
+    private List<Object> findIds(Class<?> type, Criteria criteria) {
+        return findIds(mongoTemplate.getCollectionName(type), criteria);
+    }
+
+    private List<Object> findIds(String collection, Criteria criteria) {
+        Query query = Query.query(criteria).limit(batchSize);
+        query.fields().include("_id");
+        List<Object> ids = new ArrayList<>();
+        for (Document document : mongoTemplate.find(query, Document.class, collection)) {
+            ids.add(document.get("_id"));
+        }
+        return ids;
+    }
+
+    private long removeByIds(Class<?> type, List<Object> ids) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), type).getDeletedCount();
+    }
+
+    private long removeByIds(String collection, List<Object> ids) {
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), collection).getDeletedCount();
+    }
+
+    private void refreshLag() {
+        Query oldest = new Query().with(Sort.by(Sort.Direction.ASC, "createdAt")).limit(1);
+        Document tombstone = mongoTemplate.findOne(oldest, Document.class, TOMBSTONES);
+        oldestPendingAt = tombstone == null ? 0 : tombstone.getDate("createdAt").getTime();
+    }
+
+    private CompactIdSet setFor(String kind) {
+        return USER.equals(kind) ? deletedUsers : deletedCollaborations;
+    }
+
+    private static List<String> toStrings(List<Object> ids) {
+        List<String> strings = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            strings.add(id.toString());
+        }
+        return strings;
+    }
+
+    private static List<Object> toIds(List<String> ids) {
+        List<Object> converted = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            converted.add(toId(id));
+        }
+        return converted;
+    }
+
+    private static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.cascade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+
+/**
+ * A small, read-mostly set of document IDs. ObjectId-shaped IDs are packed
+ * into a sorted pair of primitive arrays (8 + 4 bytes each) and found by
+ * binary search; any other IDs go in a sorted string array. Writes copy the
+ * arrays and publish them atomically, so reads never lock.
+ */
+final class CompactIdSet {
+
+    private static final class Snapshot {
+        final long[] high;
+        final int[] low;
+        final String[] others;
+
+        Snapshot(long[] high, int[] low, String[] others) {
+            this.high = high;
+            this.low = low;
+            this.others = others;
+        }
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new int[0], new String[0]);
+
+    boolean contains(String id) {
+        if (id == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        if (ObjectId.isValid(id)) {
+            byte[] bytes = new ObjectId(id).toByteArray();
+            return indexOf(current, high(bytes), low(bytes)) >= 0;
+        }
+        return Arrays.binarySearch(current.others, id) >= 0;
+    }
+
+    synchronized void add(String id) {
+        Snapshot current = snapshot;
+        if (ObjectId.isValid(id)) {
+            byte[] bytes = new ObjectId(id).toByteArray();
+            long high = high(bytes);
+            int low = low(bytes);
+            int index = indexOf(current, high, low);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            long[] newHigh = new long[current.high.length + 1];
+            int[] newLow = new int[current.low.length + 1];
+            System.arraycopy(current.high, 0, newHigh, 0, insertAt);
+            System.arraycopy(current.low, 0, newLow, 0, insertAt);
+            newHigh[insertAt] = high;
+            newLow[insertAt] = low;
+            System.arraycopy(current.high, insertAt, newHigh, insertAt + 1, current.high.length - insertAt);
+            System.arraycopy(current.low, insertAt, newLow, insertAt + 1, current.low.length - insertAt);
+            snapshot = new Snapshot(newHigh, newLow, current.others);
+        } else if (Arrays.binarySearch(current.others, id) < 0) {
+            String[] others = Arrays.copyOf(current.others, current.others.length + 1);
+            others[others.length - 1] = id;
+            Arrays.sort(others);
+            snapshot = new Snapshot(current.high, current.low, others);
+        }
+    }
+
+    synchronized void remove(String id) {
+        Snapshot current = snapshot;
+        if (ObjectId.isValid(id)) {
+            byte[] bytes = new ObjectId(id).toByteArray();
+            int index = indexOf(current, high(bytes), low(bytes));
+            if (index < 0) {
+                return;
+            }
+            long[] newHigh = new long[current.high.length - 1];
+            int[] newLow = new int[current.low.length - 1];
+            System.arraycopy(current.high, 0, newHigh, 0, index);
+            System.arraycopy(current.low, 0, newLow, 0, index);
+            System.arraycopy(current.high, index + 1, newHigh, index, newHigh.length - index);
+            System.arraycopy(current.low, index + 1, newLow, index, newLow.length - index);
+            snapshot = new Snapshot(newHigh, newLow, current.others);
+        } else {
+            int index = Arrays.binarySearch(current.others, id);
+            if (index < 0) {
+                return;
+            }
+            String[] others = new String[current.others.length - 1];
+            System.arraycopy(current.others, 0, others, 0, index);
+            System.arraycopy(current.others, index + 1, others, index, others.length - index);
+            snapshot = new Snapshot(current.high, current.low, others);
+        }
+    }
+
+    boolean isEmpty() {
+        Snapshot current = snapshot;
+        return current.high.length == 0 && current.others.length == 0;
+    }
+
+    int size() {
+        Snapshot current = snapshot;
+        return current.high.length + current.others.length;
+    }
+
+    /**
+     * @return The IDs as strings, e.g. for a {@code $nin} filter.
+     */
+    List<String> toList() {
+        Snapshot current = snapshot;
+        List<String> ids = new ArrayList<>(current.high.length + current.others.length);
+        byte[] bytes = new byte[12];
+        for (int i = 0; i < current.high.length; i++) {
+            long high = current.high[i];
+            int low = current.low[i];
+            for (int b = 0; b < 8; b++) {
+                bytes[b] = (byte) (high >>> (56 - 8 * b));
+            }
+            for (int b = 0; b < 4; b++) {
+                bytes[8 + b] = (byte) (low >>> (24 - 8 * b));
+            }
+            ids.add(new ObjectId(bytes).toHexString());
+        }
+        ids.addAll(Arrays.asList(current.others));
+        return ids;
+    }
+
+    private static int indexOf(Snapshot snapshot, long high, int low) {
+        int from = 0;
+        int to = snapshot.high.length - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            int cmp = Long.compare(snapshot.high[mid], high);
+            if (cmp == 0) {
+                cmp = Integer.compare(snapshot.low[mid], low);
+            }
+            if (cmp < 0) {
+                from = mid + 1;
+            } else if (cmp > 0) {
+                to = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(from + 1);
+    }
+
+    private static long high(byte[] bytes) {
+        long high = 0;
+        for (int b = 0; b < 8; b++) {
+            high = (high << 8) | (bytes[b] & 0xFF);
+        }
+        return high;
+    }
+
+    private static int low(byte[] bytes) {
+        int low = 0;
+        for (int b = 8; b < 12; b++) {
+            low = (low << 8) | (bytes[b] & 0xFF);
+        }
+        return low;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.cache.LocalLookupCache;
+import com.example.demo.cache.LookupCache;
+import com.example.demo.dto.PostingSummary;
+import com.example.demo.service.ListingResponses;
+
+/**
+ * Lookup caches for hot documents and serialized listing pages. A deployment that shares a cache tier
+ * between nodes can replace either bean by defining one with the same name.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "opportunitySummaryCache")
+    public LookupCache<String, PostingSummary> opportunitySummaryCache(
+            @Value("${cache.postings.max-size:10000}") int maxSize,
+            @Value("${cache.postings.ttl-seconds:60}") long ttlSeconds) {
+        return new LocalLookupCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "collaborationSummaryCache")
+    public LookupCache<String, PostingSummary> collaborationSummaryCache(
+            @Value("${cache.postings.max-size:10000}") int maxSize,
+            @Value("${cache.postings.ttl-seconds:60}") long ttlSeconds) {
+        return new LocalLookupCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Serialized listing pages, keyed by URL and content version, so superseded
+     * versions simply age out.
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "listingPageCache")
+    public LookupCache<String, ListingResponses.RenderedPage> listingPageCache(
+            @Value("${cache.listing-pages.max-size:1000}") int maxSize,
+            @Value("${cache.listing-pages.ttl-seconds:300}") long ttlSeconds) {
+        return new LocalLookupCache<>(maxSize, ttlSeconds * 1000);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Concurrency caps for blocking downstream calls. With virtual threads the
+ * number of in-flight requests is no longer bounded by a thread pool, so these
+ * permits are what keeps a burst from opening unbounded SMTP sessions. Mongo
+ * is capped by its connection pool, see {@link ExecutionModeConfig}.
+ */
+@Component
+public class DownstreamLimits {
+
+    @Value("${smtp.max-concurrent-sends:4}")
+    private int smtpPermits;
+    @Value("${smtp.permit-timeout-ms:30000}")
+    private long smtpPermitTimeoutMs;
+
+    private Semaphore smtp;
+
+    @PostConstruct
+    public void init() {
+        smtp = new Semaphore(smtpPermits, true);
+    }
+
+    /**
+     * Runs an SMTP call while holding one of the SMTP permits.
+     *
+     * @param call The call.
+     * @throws InterruptedException If interrupted while waiting for a permit.
+     * @throws IllegalStateException If no permit became free in time.
+     */
+    public void withSmtpPermit(Runnable call) throws InterruptedException {
+        if (!smtp.tryAcquire(smtpPermitTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Timed out waiting for an SMTP permit");
+        }
+        try {
+            call.run();
+        } finally {
+            smtp.release();
+        }
+    }
+
+    public int getAvailableSmtpPermits() {
+        return smtp.availablePermits();
+    }
+
+    public int getQueuedSmtpCallers() {
+        return smtp.getQueueLength();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Request execution mode. With {@code app.execution.mode=virtual} Tomcat runs
+ * each request on its own virtual thread and background mail workers are
+ * virtual threads too; the default {@code platform} keeps Tomcat's thread
+ * pool. Either way Mongo concurrency can be capped with
+ * {@code mongo.max-concurrent-operations}.
+ */
+@Configuration
+public class ExecutionModeConfig {
+
+    public static final String MODE_PROPERTY = "app.execution.mode";
+    public static final String VIRTUAL = "virtual";
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = VIRTUAL)
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Caps concurrent Mongo operations through the driver's connection pool;
+     * callers beyond the cap wait up to {@code mongo.max-wait-ms} and then fail
+     * instead of piling up.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "mongo.max-concurrent-operations")
+    public MongoClientSettingsBuilderCustomizer mongoConcurrencyLimit(
+            @Value("${mongo.max-concurrent-operations}") int maxConcurrent,
+            @Value("${mongo.max-wait-ms:2000}") long maxWaitMs) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxConcurrent)
+                .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Thread factory for background workers that follows the execution mode.
+     *
+     * @param mode   The configured execution mode.
+     * @param prefix The thread name prefix.
+     * @return A factory for virtual threads in virtual mode, daemon platform
+     *         threads otherwise.
+     */
+    public static ThreadFactory workerThreads(String mode, String prefix) {
+        if (VIRTUAL.equals(mode)) {
+            return Thread.ofVirtual().name(prefix + "-", 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
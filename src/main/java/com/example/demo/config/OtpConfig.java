@@ -0,0 +1,30 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.demo.otp.LocalOtpBackend;
+import com.example.demo.otp.MongoOtpBackend;
+import com.example.demo.otp.OtpBackend;
+
+/**
+ * Selects where outstanding OTPs live: {@code otp.store.backend=local} (the
+ * default) keeps them on this node, {@code mongo} shares them between nodes.
+ */
+@Configuration
+public class OtpConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "otp.store.backend", havingValue = "local", matchIfMissing = true)
+    public LocalOtpBackend localOtpBackend() {
+        return new LocalOtpBackend();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "otp.store.backend", havingValue = "mongo")
+    public OtpBackend mongoOtpBackend(MongoTemplate mongoTemplate) {
+        return new MongoOtpBackend(mongoTemplate);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Loads the forwarded-header defaults, so {@code getRemoteAddr()} is the
+ * client's address rather than the load balancer's. The per-IP OTP limits
+ * and admission control key on it.
+ */
+@Configuration
+@PropertySource("classpath:proxy.properties")
+public class ProxyConfig {
+}
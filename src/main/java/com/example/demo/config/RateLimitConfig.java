@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.demo.ratelimit.LocalRateLimitBackend;
+import com.example.demo.ratelimit.MongoRateLimitBackend;
+import com.example.demo.ratelimit.RateLimitBackend;
+
+/**
+ * Selects where per-client request budgets are counted:
+ * {@code admission.backend=local} (the default) counts on each node, so the
+ * effective limit grows with the number of nodes; {@code mongo} counts once
+ * for the whole cluster.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Value("${admission.max-tracked-clients:100000}")
+    private int maxTrackedClients;
+
+    @Bean
+    @ConditionalOnProperty(name = "admission.backend", havingValue = "local", matchIfMissing = true)
+    public RateLimitBackend localRateLimitBackend() {
+        return new LocalRateLimitBackend(maxTrackedClients);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "admission.backend", havingValue = "mongo")
+    public RateLimitBackend mongoRateLimitBackend(MongoTemplate mongoTemplate) {
+        return new MongoRateLimitBackend(mongoTemplate, new LocalRateLimitBackend(maxTrackedClients));
+    }
+}
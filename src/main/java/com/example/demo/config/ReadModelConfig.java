@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.demo.readmodel.ChangeFeedSource;
+import com.example.demo.readmodel.LocalChangeFeedSource;
+import com.example.demo.readmodel.MongoChangeStreamSource;
+
+/**
+ * Selects the change feed behind the dashboard views:
+ * {@code readmodel.source=local} (the default) follows this node's own writes
+ * and is only correct for a single-node deployment; {@code mongo} follows a
+ * Mongo change stream, needs a replica set, and works with any number of nodes.
+ */
+@Configuration
+public class ReadModelConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "readmodel.source", havingValue = "local", matchIfMissing = true)
+    public LocalChangeFeedSource localChangeFeedSource() {
+        return new LocalChangeFeedSource();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "readmodel.source", havingValue = "mongo")
+    public ChangeFeedSource mongoChangeFeedSource(MongoTemplate mongoTemplate) {
+        return new MongoChangeStreamSource(mongoTemplate);
+    }
+}
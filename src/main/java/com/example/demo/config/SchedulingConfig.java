@@ -0,0 +1,13 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs such as the notification digest
+ * flush.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,21 +1,53 @@
 package com.example.demo.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.CorsFilter;
 
+import com.example.demo.idempotency.IdempotencyFilter;
+import com.example.demo.ratelimit.AdmissionControl;
+import com.example.demo.ratelimit.AdmissionFilter;
+import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.JwtTokenVerifier;
+import com.example.demo.service.MongoCursorPager;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    // Requires jwt.secret, which login and registration then sign tokens with
+    @Value("${security.jwt.enforce:false}")
+    private boolean enforceJwt;
+    // Bearer token the metrics collector must send; while unset the endpoint is refused
+    @Value("${metrics.scrape-token:}")
+    private String scrapeToken;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -31,24 +63,49 @@ public class SecurityConfig {
                     "/api/users/register",
                     "/api/users/request-otp",
                     "/api/users/verify-otp",
+                    "/api/users/logout",
                     "/api/users/oauth/login", // New OAuth2 login endpoint
                     "/api/users/oauth/register", // New OAuth2 register endpoint
                     "/login/oauth2/code/google", // Google redirect URI
                     "/api/users/opportunities/opportunitiesGetAll", // Publicly viewable
-                    "/api/users/collabration/getCollabOfAllUsers"  // Publicly viewable
+                    "/api/users/collabration/getCollabOfAllUsers",  // Publicly viewable
+                    "/api/users/search", // Searches the same public listings
+                    "/actuator/health"
                 ).permitAll()
-                // All other requests must be authenticated (this will be enforced once JWT filter is added)
-                .anyRequest().permitAll() // Temporarily permit all to avoid blocking during setup
+                // Scraped by the metrics collector, which sends the shared scrape token
+                .requestMatchers("/actuator/prometheus").access((authentication, context) ->
+                        new AuthorizationDecision(hasScrapeToken(context.getRequest())))
+                // All other requests must carry a valid token once enforcement is switched on
+                .anyRequest().access((authentication, context) ->
+                        new AuthorizationDecision(!enforceJwt || isAuthenticated(authentication.get())))
             )
             // 4. Set session management to stateless
-            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
-            
-        // In a real JWT implementation, you would add a JWT filter here that protects endpoints
-        // For now, we are permitting all requests until the JWT filter is in place.
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // 5. Throttle public endpoints; after CORS so browsers can read the 429
+            .addFilterAfter(new AdmissionFilter(admissionControl), CorsFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+
+        // 6. Validate bearer tokens without a database lookup, once a signing key is configured
+        if (jwtTokenVerifier.isEnabled()) {
+            http.addFilterBefore(new JwtAuthenticationFilter(jwtTokenVerifier),
+                    UsernamePasswordAuthenticationFilter.class);
+        }
 
         return http.build();
     }
 
+    private boolean hasScrapeToken(HttpServletRequest request) {
+        String token = JwtAuthenticationFilter.bearerToken(request);
+        return !scrapeToken.isEmpty() && token != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), scrapeToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isAuthenticated(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -60,6 +117,8 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(MongoCursorPager.NEXT_CURSOR_HEADER,
+                IdempotencyFilter.REPLAYED_HEADER));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
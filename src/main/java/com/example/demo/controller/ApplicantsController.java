@@ -1,12 +1,12 @@
 package com.example.demo.controller;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,39 +14,62 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+
 import com.wcontent.service.EmailService;
+import com.wcontent.service.NotificationDigestScheduler;
+import com.example.demo.cascade.CascadeWorker;
+import com.example.demo.dto.BulkApplyResult;
+import com.example.demo.dto.PostingSummary;
 import com.example.demo.model.Applicant;
-import com.example.demo.model.PostOpportunity;
+import com.example.demo.model.Application;
 import com.example.demo.repository.PostOpportunityRepository;
+import com.example.demo.service.ApplicationService;
+import com.example.demo.service.ListingResponses;
+import com.example.demo.service.MongoCursorPager;
+import com.example.demo.service.PostingLookupService;
 
 @RestController
 @RequestMapping("/api/users/application")
+@Profile("!reactive")
 public class ApplicantsController {
 
     @Autowired
     private PostOpportunityRepository postOpportunityRepository;
     @Autowired
     private EmailService emailService;
+    @Autowired
+    private NotificationDigestScheduler notificationDigestScheduler;
+    @Autowired
+    private CascadeWorker cascadeWorker;
+    @Autowired
+    private ApplicationService applicationService;
+    @Autowired
+    private MongoCursorPager mongoCursorPager;
+    @Autowired
+    private PostingLookupService postingLookupService;
+    @Autowired
+    private ListingResponses listingResponses;
+
+    @Value("${applications.bulk.max-size:200}")
+    private int maxBulkApplicants;
 
     @PostMapping("/opportunity/{id}/apply")
     public ResponseEntity<?> applyToOpportunity(
             @PathVariable("id") String opportunityId,
             @RequestBody Applicant applicant) {
 
-        Optional<PostOpportunity> optionalOpportunity = postOpportunityRepository.findById(opportunityId);
-        if (!optionalOpportunity.isPresent()) {
+        PostingSummary opportunity = postingLookupService.findOpportunity(opportunityId);
+        if (opportunity == null) {
             return new ResponseEntity<>("Opportunity not found", HttpStatus.NOT_FOUND);
         }
-        PostOpportunity opportunity = optionalOpportunity.get();
-        if (opportunity.getApplicants() == null) {
-            opportunity.setApplicants(new ArrayList<>());
-        }
-        opportunity.getApplicants().add(applicant);
-        postOpportunityRepository.save(opportunity);
+        applicationService.submit(opportunityId, applicant);
 
         // Notify the opportunity owner
-        emailService.sendNewApplicationNotification(opportunity.getEmail(), applicant, opportunity.getTitle(),
+        notificationDigestScheduler.newApplication(opportunity.getEmail(), applicant, opportunity.getTitle(),
                 opportunity.getId());
 
         // Send confirmation to the applicant
@@ -55,39 +78,75 @@ public class ApplicantsController {
         return new ResponseEntity<>("Application submitted successfully", HttpStatus.OK);
     }
 
+    /**
+     * Applies many creators to one opportunity with one bulk insert and one
+     * digest email to the owner. Returns one result per submitted applicant.
+     */
+    @PostMapping("/opportunity/{id}/apply/bulk")
+    public ResponseEntity<?> applyToOpportunityInBulk(
+            @PathVariable("id") String opportunityId,
+            @RequestBody List<Applicant> applicants) {
+
+        if (applicants == null || applicants.isEmpty()) {
+            return new ResponseEntity<>("No applicants provided", HttpStatus.BAD_REQUEST);
+        }
+        if (applicants.size() > maxBulkApplicants) {
+            return new ResponseEntity<>("At most " + maxBulkApplicants + " applicants can be submitted at once",
+                    HttpStatus.BAD_REQUEST);
+        }
+        PostingSummary opportunity = postingLookupService.findOpportunity(opportunityId);
+        if (opportunity == null) {
+            return new ResponseEntity<>("Opportunity not found", HttpStatus.NOT_FOUND);
+        }
+        List<BulkApplyResult> results = applicationService.submitAll(opportunityId, applicants);
+
+        List<Applicant> submitted = new ArrayList<>(results.size());
+        for (BulkApplyResult result : results) {
+            if (result.isSubmitted()) {
+                submitted.add(applicants.get(result.getIndex()));
+            }
+        }
+        if (!submitted.isEmpty()) {
+            // Notify the opportunity owner once for the whole batch, or in the next digest
+            notificationDigestScheduler.newApplications(opportunity.getEmail(), submitted, opportunity.getTitle(),
+                    opportunity.getId());
+
+            // Send confirmation to each applicant
+            for (Applicant applicant : submitted) {
+                emailService.sendApplicationConfirmation(applicant.getEmail(), opportunity.getTitle());
+            }
+        }
+
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Lists an opportunity's applicants in the order they applied, one page
+     * at a time; the next cursor is sent in the {@code X-Next-Cursor} header.
+     * Without {@code after} or {@code limit} the first page is the largest
+     * one allowed.
+     */
     @GetMapping("/opportunity/{id}/applicants")
-    public ResponseEntity<?> getApplicantsForOpportunity(@PathVariable("id") String opportunityId) {
-        Optional<PostOpportunity> optionalOpportunity = postOpportunityRepository.findById(opportunityId);
-        if (!optionalOpportunity.isPresent()) {
+    public ResponseEntity<?> getApplicantsForOpportunity(@PathVariable("id") String opportunityId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, HttpServletRequest request) {
+        if (postingLookupService.findOpportunity(opportunityId) == null) {
             return new ResponseEntity<>("Opportunity not found", HttpStatus.NOT_FOUND);
         }
-        PostOpportunity opportunity = optionalOpportunity.get();
-        return new ResponseEntity<>(opportunity.getApplicants(), HttpStatus.OK);
+        return listingResponses.respond(request, Application.class, after, limit, () -> {
+            // Applicants whose accounts were deleted are hidden until their applications are cleaned up
+            Query applicants = cascadeWorker.excludeDeleted(
+                    applicationService.applicationsForOpportunity(opportunityId), "userId", false);
+            return mongoCursorPager.page(applicants, Application.class, after, limit, Application::getId,
+                    Application::getApplicant);
+        });
     }
 
     @GetMapping("/myApplications/{userId}")
     public ResponseEntity<?> getMyApplications(@PathVariable("userId") String userId) {
-        List<PostOpportunity> allOpportunities = postOpportunityRepository.findAll();
-        List<Map<String, Object>> myApplications = new ArrayList<>();
-
-        for (PostOpportunity opportunity : allOpportunities) {
-            if (opportunity.getApplicants() != null) {
-                for (Applicant applicant : opportunity.getApplicants()) {
-                    // Assuming the Applicant object contains the applicant's userId
-                    if (userId.equals(applicant.getUserId())) {
-                        Map<String, Object> applicationDetails = new HashMap<>();
-                        applicationDetails.put("opportunity", opportunity);
-                        applicationDetails.put("_id", applicant.getId()); // Assuming a unique ID for the application
-                        applicationDetails.put("applicationDate", applicant.getApplicationDate());
-                        applicationDetails.put("resumeUrl", applicant.getResumeUrl());
-                        applicationDetails.put("name", applicant.getName());
-                        applicationDetails.put("email", applicant.getEmail());
-                        myApplications.add(applicationDetails);
-                    }
-                }
-            }
-        }
-        return new ResponseEntity<>(myApplications, HttpStatus.OK);
+        List<Application> applications = applicationService.findByUser(userId);
+        return new ResponseEntity<>(ApplicationService.toDetails(applications, postOpportunityRepository::findAllById),
+                HttpStatus.OK);
     }
 
 }
@@ -0,0 +1,90 @@
+package com.example.demo.controller;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.archive.PostingArchiver;
+import com.example.demo.cascade.CascadeWorker;
+import com.example.demo.model.Application;
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.service.MongoCursorPager;
+
+/**
+ * Read access to postings moved out by {@link PostingArchiver}. Kept apart
+ * from the live endpoints so archive reads never share their indexes or
+ * caches; pages use the same keyset cursor as the live listings.
+ */
+@RestController
+@RequestMapping("/api/users/archive")
+public class ArchiveController {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private PostingArchiver postingArchiver;
+    @Autowired
+    private MongoCursorPager mongoCursorPager;
+    @Autowired
+    private CascadeWorker cascadeWorker;
+
+    @GetMapping("/collaborations/{id}")
+    public ResponseEntity<?> getCollaboration(@PathVariable String id) {
+        Collaboration collaboration = cascadeWorker.isCollaborationDeleted(id) ? null
+                : mongoTemplate.findById(id, Collaboration.class, postingArchiver.archiveOf(Collaboration.class));
+        if (collaboration == null || cascadeWorker.isUserDeleted(collaboration.getCreatorId())) {
+            return new ResponseEntity<>("Collaboration not found", HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(collaboration, HttpStatus.OK);
+    }
+
+    @GetMapping("/collaborations/creator/{creatorId}")
+    public ResponseEntity<?> getCollaborationsOfUser(@PathVariable String creatorId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        Query query = cascadeWorker.excludeDeleted(Query.query(Criteria.where("creatorId").is(creatorId)),
+                "creatorId", true);
+        return mongoCursorPager.page(query, Collaboration.class, postingArchiver.archiveOf(Collaboration.class),
+                after, limit, Collaboration::getId, Function.identity());
+    }
+
+    @GetMapping("/opportunities/{id}")
+    public ResponseEntity<?> getOpportunity(@PathVariable String id) {
+        PostOpportunity opportunity = mongoTemplate.findById(id, PostOpportunity.class,
+                postingArchiver.archiveOf(PostOpportunity.class));
+        if (opportunity == null) {
+            return new ResponseEntity<>("Opportunity not found", HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(opportunity, HttpStatus.OK);
+    }
+
+    @GetMapping("/opportunities/{id}/applicants")
+    public ResponseEntity<?> getApplicantsForOpportunity(@PathVariable("id") String opportunityId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        Query query = cascadeWorker.excludeDeleted(Query.query(Criteria.where("opportunityId").is(opportunityId)),
+                "userId", false);
+        return mongoCursorPager.page(query, Application.class, postingArchiver.archiveOf(Application.class),
+                after, limit, Application::getId, Application::getApplicant);
+    }
+
+    @GetMapping("/applications/{userId}")
+    public ResponseEntity<?> getApplicationsOfUser(@PathVariable String userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        Query query = cascadeWorker.excludeDeleted(Query.query(Criteria.where("userId").is(userId)), "userId", false);
+        return mongoCursorPager.page(query, Application.class, postingArchiver.archiveOf(Application.class),
+                after, limit, Application::getId, Function.identity());
+    }
+}
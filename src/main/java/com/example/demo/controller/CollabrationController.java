@@ -1,9 +1,13 @@
 package com.example.demo.controller;
 
-import java.util.ArrayList;
 import java.util.Optional;
+import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,85 +15,131 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import com.wcontent.service.EmailService;
+import com.wcontent.service.NotificationDigestScheduler;
+import com.example.demo.dto.PostingSummary;
+import com.example.demo.cascade.CascadeWorker;
 import com.example.demo.model.CollabRequest;
 import com.example.demo.model.Collaboration;
-import com.example.demo.model.User;
+import com.example.demo.repository.CollabRequestRepository;
 import com.example.demo.repository.CollaborationRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CollaborationService;
+import com.example.demo.service.ContentVersions;
+import com.example.demo.service.ListingResponses;
+import com.example.demo.service.MongoCursorPager;
+import com.example.demo.service.PostingLookupService;
+import com.example.demo.service.PostingSearchService;
 
 @RestController
 @RequestMapping("/api/users/collabration")
+@Profile("!reactive")
 public class CollabrationController {
 
+    private static final Logger log = LoggerFactory.getLogger(CollabrationController.class);
+
     @Autowired
     private CollaborationRepository collabrationRepository;
     @Autowired
     private UserRepository userRepository;
     @Autowired
+    private CollabRequestRepository collabRequestRepository;
+    @Autowired
+    private CollaborationService collaborationService;
+    @Autowired
     private EmailService emailService;
+    @Autowired
+    private NotificationDigestScheduler notificationDigestScheduler;
+    @Autowired
+    private MongoCursorPager mongoCursorPager;
+    @Autowired
+    private PostingLookupService postingLookupService;
+    @Autowired
+    private PostingSearchService postingSearchService;
+    @Autowired
+    private CascadeWorker cascadeWorker;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private ListingResponses listingResponses;
 
     @PostMapping("/addCollab/{id}")
     public ResponseEntity<?> addCollab(@PathVariable String id, @RequestBody Collaboration collabration) {
-        Optional<User> optionalUser = userRepository.findById(id);
-        if (!optionalUser.isPresent()) {
+        if (!userRepository.existsById(id)) {
             return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
         }
-        User user = optionalUser.get();
-        if (user.getCollaborations() == null) {
-            user.setCollaborations(new ArrayList<>());
-        }
+        // The creator's collaborations are found by creatorId, nothing is copied onto the user
+        collabration.setCreatorId(id);
         Collaboration savedCollaboration = collabrationRepository.save(collabration);
-        user.getCollaborations().add(savedCollaboration);
-        userRepository.save(user);
-        return new ResponseEntity<>(user, HttpStatus.CREATED);
+        contentVersions.bump(Collaboration.class);
+        postingSearchService.indexCollaboration(savedCollaboration);
+        return new ResponseEntity<>(savedCollaboration, HttpStatus.CREATED);
     }
 
+    /**
+     * Lists the collaborations a user created, one page at a time; the next
+     * cursor is sent in the {@code X-Next-Cursor} header. Without
+     * {@code after} or {@code limit} the first page is the largest one
+     * allowed.
+     */
     @GetMapping("/getCollabOfUser/{id}")
-    public ResponseEntity<?> getCollab(@PathVariable String id) {
-        Optional<User> optionalUser = userRepository.findById(id);
-        if (!optionalUser.isPresent()) {
+    public ResponseEntity<?> getCollab(@PathVariable String id,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (!userRepository.existsById(id)) {
             return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
         }
-        User user = optionalUser.get();
-        return new ResponseEntity<>(user.getCollaborations(), HttpStatus.OK);
-
+        return mongoCursorPager.page(
+                cascadeWorker.excludeDeleted(collaborationService.collaborationsByCreator(id), "creatorId", true),
+                Collaboration.class, after, limit, Collaboration::getId, Function.identity());
     }
 
     @GetMapping("/getCollabOfAllUsers")
-    public ResponseEntity<?> getCollabOfAllUsers() {
-        return new ResponseEntity<>(collabrationRepository.findAll(), HttpStatus.OK);
+    public ResponseEntity<?> getCollabOfAllUsers(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, HttpServletRequest request) {
+        return listingResponses.respond(request, Collaboration.class, after, limit, () -> mongoCursorPager.page(
+                collabListingQuery(), Collaboration.class, after, limit, Collaboration::getId, Function.identity()));
+    }
 
+    @GetMapping(value = "/getCollabOfAllUsers", produces = MongoCursorPager.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamCollabOfAllUsers() {
+        return mongoCursorPager.stream(collabListingQuery(), Collaboration.class, Function.identity());
     }
 
     @PostMapping("/deleteCollab/{id}")
     public ResponseEntity<?> deleteCollab(@PathVariable String id) {
+        // Copies that still reference the collaboration are removed in the background
+        cascadeWorker.recordCollaborationDelete(id);
         collabrationRepository.deleteById(id);
+        contentVersions.bump(Collaboration.class);
+        postingLookupService.invalidateCollaboration(id);
+        postingSearchService.removeCollaboration(id);
         return new ResponseEntity<>("Collabration deleted successfully", HttpStatus.OK);
     }
 
     @PostMapping("/applyForCollab/{collabId}")
     public ResponseEntity<?> applyForCollab(@PathVariable String collabId, @RequestBody CollabRequest collabRequest) {
-        Optional<Collaboration> optionalCollaboration = collabrationRepository.findById(collabId);
-
-        if (!optionalCollaboration.isPresent()) {
+        if (collabRequestRepository.append(collabId, collabRequest) == 0) {
             return new ResponseEntity<>("Collaboration not found", HttpStatus.NOT_FOUND);
         }
-        Collaboration collaboration = optionalCollaboration.get();
-        if (collaboration.getCollabs() == null) {
-            collaboration.setCollabs(new ArrayList<>());
+        // The request is stored from here on, so a failed lookup only costs the emails
+        PostingSummary collaboration = postingLookupService.findCollaboration(collabId);
+        if (collaboration == null) {
+            log.warn("Collaboration {} disappeared after a request was added, skipping notifications", collabId);
+        } else {
+            // Notify the collaboration owner
+            notificationDigestScheduler.newCollabRequest(collaboration.getEmail(), collabRequest,
+                    collaboration.getTitle(), collaboration.getId());
+
+            // Send confirmation to the person requesting
+            emailService.sendCollabRequestConfirmation(collabRequest.getRequesterEmail(), collaboration.getTitle());
         }
-        collaboration.getCollabs().add(collabRequest);
-        collabrationRepository.save(collaboration);
-
-        // Notify the collaboration owner
-        emailService.sendNewCollabRequestNotification(collaboration.getEmail(), collabRequest,
-                collaboration.getTitle(), collaboration.getId());
-
-        // Send confirmation to the person requesting
-        emailService.sendCollabRequestConfirmation(collabRequest.getRequesterEmail(), collaboration.getTitle());
 
         return new ResponseEntity<>("Collaboration request submitted successfully!",
                 HttpStatus.OK);
@@ -105,4 +155,11 @@ public class CollabrationController {
         return new ResponseEntity<>(collaboration.getCollabs(), HttpStatus.OK);
     }
 
+    // Listings leave out the embedded requests, which only the owner needs, and
+    // anything still waiting for delete cleanup
+    private Query collabListingQuery() {
+        Query query = new Query();
+        query.fields().exclude("collabs");
+        return cascadeWorker.excludeDeleted(query, "creatorId", true);
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.demo.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.readmodel.DashboardProjector;
+
+@RestController
+@RequestMapping("/api/users/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardProjector dashboardProjector;
+
+    @GetMapping("/{userId}")
+    public ResponseEntity<?> getUserDashboard(@PathVariable String userId) {
+        return new ResponseEntity<>(dashboardProjector.findUserView(userId), HttpStatus.OK);
+    }
+
+    @GetMapping("/opportunity/{id}")
+    public ResponseEntity<?> getOpportunityDashboard(@PathVariable("id") String opportunityId) {
+        return new ResponseEntity<>(dashboardProjector.findOpportunityView(opportunityId), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.cascade.CascadeWorker;
+import com.example.demo.dto.SearchHit;
+import com.example.demo.model.Collaboration;
+import com.example.demo.service.MongoCursorPager;
+import com.example.demo.service.PostingSearchService;
+
+@RestController
+@RequestMapping("/api/users/search")
+public class SearchController {
+
+    /** Deepest offset served; ranking keeps offset + limit hits in memory. */
+    static final int MAX_OFFSET = 10 * MongoCursorPager.MAX_PAGE_SIZE;
+
+    @Autowired
+    private PostingSearchService postingSearchService;
+    @Autowired
+    private CascadeWorker cascadeWorker;
+
+    /**
+     * Searches collaborations and opportunities, best match first. The offset
+     * of the following page, if any, is sent in the X-Next-Cursor header.
+     * Offsets past {@value #MAX_OFFSET} are refused.
+     */
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        if (type != null && !PostingSearchService.COLLABORATIONS.equals(type)
+                && !PostingSearchService.OPPORTUNITIES.equals(type)) {
+            return new ResponseEntity<>("Unknown search type", HttpStatus.BAD_REQUEST);
+        }
+        int offset = after == null ? 0 : Math.max(after, 0);
+        if (offset > MAX_OFFSET) {
+            return new ResponseEntity<>("Search results are only available up to offset " + MAX_OFFSET,
+                    HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = limit == null ? MongoCursorPager.DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(limit, MongoCursorPager.MAX_PAGE_SIZE));
+
+        List<SearchHit> hits = postingSearchService.search(query, type, offset, pageSize);
+        HttpHeaders headers = new HttpHeaders();
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            headers.set(MongoCursorPager.NEXT_CURSOR_HEADER, String.valueOf(offset + pageSize));
+        }
+        // Collaborations waiting for delete cleanup may still be indexed
+        List<SearchHit> visible = hits.stream().filter(hit -> !isDeleted(hit)).toList();
+        return new ResponseEntity<>(visible, headers, HttpStatus.OK);
+    }
+
+    private boolean isDeleted(SearchHit hit) {
+        return hit.getPosting() instanceof Collaboration collaboration
+                && (cascadeWorker.isCollaborationDeleted(hit.getId())
+                        || cascadeWorker.isUserDeleted(collaboration.getCreatorId()));
+    }
+}
@@ -1,16 +1,28 @@
 package com.example.demo.controller;
 
 import com.wcontent.service.EmailService;
-import com.example.demo.MailTest.OTPService;
-import com.example.demo.dto.TokenResponse;
+import com.example.demo.cascade.CascadeWorker;
+import com.example.demo.dto.AuthResponse;
+import com.example.demo.dto.UserSummary;
 import com.example.demo.model.User;
+import com.example.demo.otp.OtpStore;
 import com.example.demo.repository.UserRepository;
-import com.example.demo.utils.JwtUtil;
+import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.JwtTokenIssuer;
+import com.example.demo.security.JwtTokenVerifier;
+import com.example.demo.service.ContentVersions;
+import com.example.demo.service.ListingResponses;
+import com.example.demo.service.MongoCursorPager;
+import com.example.demo.service.UserLookupService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,34 +36,70 @@ public class UserController {
     @Autowired
     private EmailService emailService;
     @Autowired
-    private OTPService otpService;
+    private OtpStore otpStore;
+    @Autowired
+    private MongoCursorPager mongoCursorPager;
+    @Autowired
+    private UserLookupService userLookupService;
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+    @Autowired
+    private JwtTokenIssuer jwtTokenIssuer;
+    @Autowired
+    private CascadeWorker cascadeWorker;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private ListingResponses listingResponses;
 
     @GetMapping("/getAll")
-    public Iterable<User> getAllUsers() {
-        return userRepository.findAll();
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, HttpServletRequest request) {
+        return listingResponses.respond(request, User.class, after, limit, () -> mongoCursorPager.page(
+                userSummaryQuery(), User.class, after, limit, User::getId, UserSummary::from));
+    }
+
+    @GetMapping(value = "/getAll", produces = MongoCursorPager.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return mongoCursorPager.stream(userSummaryQuery(), User.class, UserSummary::from);
     }
 
     @GetMapping("/getAlll")
-    public Iterable<User> getAllUserss() {
-        return userRepository.findAll();
+    public ResponseEntity<?> getAllUserss(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, HttpServletRequest request) {
+        return getAllUsers(after, limit, request);
+    }
+
+    @GetMapping(value = "/getAlll", produces = MongoCursorPager.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllUserss() {
+        return streamAllUsers();
     }
 
     @PostMapping("/request-otp")
-    public ResponseEntity<?> requestOTP(@RequestParam String email) {
+    public ResponseEntity<?> requestOTP(@RequestParam String email, HttpServletRequest request) {
+        if (!otpStore.tryAcquireRequest(email, request.getRemoteAddr())) {
+            return new ResponseEntity<>("Too many OTP requests. Please try again later.",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
         if (userRepository.existsByEmail(email)) {
             return new ResponseEntity<>("User with email " + email + " already exists", HttpStatus.CONFLICT);
         }
-        String otp = otpService.generateOTP();
-        otpService.sendOTPEmail(email, otp);
-        otpService.storeOTP(email, otp);
+        if (!otpStore.issue(email)) {
+            return new ResponseEntity<>("Could not send the OTP email right now. Please try again later.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
         return new ResponseEntity<>(
                 "OTP sent to your email for verification. Please check your inbox.",
                 HttpStatus.OK);
     }
 
     @PostMapping("/verify-otp")
-    public ResponseEntity<?> verifyOTP(@RequestParam String email, @RequestParam String otp) {
-        boolean isValid = otpService.validateOTP(email, otp);
+    public ResponseEntity<?> verifyOTP(@RequestParam String email, @RequestParam String otp,
+            HttpServletRequest request) {
+        if (!otpStore.tryAcquireVerification(email, request.getRemoteAddr())) {
+            return new ResponseEntity<>("Too many attempts. Please try again later.", HttpStatus.TOO_MANY_REQUESTS);
+        }
+        boolean isValid = otpStore.verify(email, otp);
         if (!isValid) {
             return new ResponseEntity<>("Invalid or expired OTP", HttpStatus.BAD_REQUEST);
         }
@@ -91,17 +139,18 @@ public class UserController {
 
         user.setVerified(true);
         User savedUser = userRepository.save(user);
+        contentVersions.bump(User.class);
 
         emailService.sendWelcomeEmail(savedUser.getEmail());
 
-        String token = JwtUtil.generateToken(user.getEmail());
-        TokenResponse tokenResponse = new TokenResponse(savedUser, token);
-        return new ResponseEntity<>(tokenResponse, HttpStatus.CREATED);
+        String token = jwtTokenIssuer.issue(user.getEmail());
+        AuthResponse authResponse = new AuthResponse(UserSummary.from(savedUser), token);
+        return new ResponseEntity<>(authResponse, HttpStatus.CREATED);
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> loginUser(@RequestBody User user) {
-        User existingUser = userRepository.findByEmail(user.getEmail()).orElse(null);
+        User existingUser = userLookupService.findLoginCandidate(user.getEmail());
 
         if (existingUser == null) {
             return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
@@ -114,10 +163,20 @@ public class UserController {
             return new ResponseEntity<>("Invalid password", HttpStatus.UNAUTHORIZED);
         }
 
-        String token = JwtUtil.generateToken(existingUser.getEmail());
-        TokenResponse tokenResponse = new TokenResponse(existingUser, token);
+        String token = jwtTokenIssuer.issue(existingUser.getEmail());
+        AuthResponse authResponse = new AuthResponse(UserSummary.from(existingUser), token);
 
-        return new ResponseEntity<>(tokenResponse, HttpStatus.OK);
+        return new ResponseEntity<>(authResponse, HttpStatus.OK);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logoutUser(HttpServletRequest request) {
+        String token = JwtAuthenticationFilter.bearerToken(request);
+        if (token == null) {
+            return new ResponseEntity<>("No token provided", HttpStatus.BAD_REQUEST);
+        }
+        jwtTokenVerifier.revoke(token);
+        return new ResponseEntity<>("Logged out successfully", HttpStatus.OK);
     }
 
     @PutMapping("/update/{id}")
@@ -127,14 +186,18 @@ public class UserController {
             return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
         }
         existingUser.setUsername(user.getUsername());
-        existingUser.setPassword(user.getPassword());
+        // Profile reads no longer return the password, so keep it unless a new one is sent
+        if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+            existingUser.setPassword(user.getPassword());
+        }
         existingUser.setEmail(user.getEmail());
         existingUser.setUserType(user.getUserType());
         existingUser.setChannelName(user.getChannelName());
         existingUser.setChannelId(user.getChannelId());
         existingUser.setChannelURL(user.getChannelURL());
         User updatedUser = userRepository.save(existingUser);
-        return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+        contentVersions.bump(User.class);
+        return new ResponseEntity<>(UserSummary.from(updatedUser), HttpStatus.OK);
     }
 
     @DeleteMapping("/delete/{id}")
@@ -143,16 +206,25 @@ public class UserController {
         if (existingUser == null) {
             return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
         }
+        // The user's postings and applications are removed in the background
+        cascadeWorker.recordUserDelete(id);
         userRepository.delete(existingUser);
+        contentVersions.bump(User.class);
         return new ResponseEntity<>("User deleted successfully", HttpStatus.OK);
     }
 
     @GetMapping("/getUser/{id}")
     public ResponseEntity<?> getUser(@PathVariable String id) {
-        User existingUser = userRepository.findById(id).orElse(null);
+        UserSummary existingUser = userLookupService.findSummary(id);
         if (existingUser == null) {
             return new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND);
         }
         return new ResponseEntity<>(existingUser, HttpStatus.OK);
     }
+
+    private static Query userSummaryQuery() {
+        Query query = new Query();
+        query.fields().include(UserSummary.FIELDS);
+        return query;
+    }
 }
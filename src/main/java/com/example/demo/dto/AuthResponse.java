@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+/**
+ * Response to a successful login or registration: the issued token and a
+ * compact view of the user.
+ */
+public class AuthResponse {
+
+    private final UserSummary user;
+    private final String token;
+
+    public AuthResponse(UserSummary user, String token) {
+        this.user = user;
+        this.token = token;
+    }
+
+    public UserSummary getUser() {
+        return user;
+    }
+
+    public String getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.dto;
+
+/**
+ * The outcome of one applicant in a bulk apply request, reported at the
+ * applicant's position in the submitted list.
+ */
+public class BulkApplyResult {
+
+    public static final String SUBMITTED = "submitted";
+    public static final String FAILED = "failed";
+
+    private final int index;
+    private final String email;
+    private final String status;
+    private final String applicationId;
+    private final String error;
+
+    private BulkApplyResult(int index, String email, String status, String applicationId, String error) {
+        this.index = index;
+        this.email = email;
+        this.status = status;
+        this.applicationId = applicationId;
+        this.error = error;
+    }
+
+    public static BulkApplyResult submitted(int index, String email, String applicationId) {
+        return new BulkApplyResult(index, email, SUBMITTED, applicationId, null);
+    }
+
+    public static BulkApplyResult failed(int index, String email, String error) {
+        return new BulkApplyResult(index, email, FAILED, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSubmitted() {
+        return SUBMITTED.equals(status);
+    }
+}
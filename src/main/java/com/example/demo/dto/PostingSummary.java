@@ -0,0 +1,30 @@
+package com.example.demo.dto;
+
+/**
+ * The few fields of an opportunity or collaboration that the apply and
+ * notification paths need, small enough to cache.
+ */
+public class PostingSummary {
+
+    private final String id;
+    private final String title;
+    private final String email;
+
+    public PostingSummary(String id, String title, String email) {
+        this.id = id;
+        this.title = title;
+        this.email = email;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
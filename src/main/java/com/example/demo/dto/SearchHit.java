@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+/**
+ * One ranked search result with the posting it refers to.
+ */
+public class SearchHit {
+
+    private final String type;
+    private final String id;
+    private final float score;
+    private final Object posting;
+
+    public SearchHit(String type, String id, float score, Object posting) {
+        this.type = type;
+        this.id = id;
+        this.score = score;
+        this.posting = posting;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public Object getPosting() {
+        return posting;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.User;
+
+/**
+ * Compact public view of a {@link User}, without credentials or embedded
+ * collaborations.
+ */
+public class UserSummary {
+
+    /** Document fields needed to build a summary, for query projections. */
+    public static final String[] FIELDS = { "username", "email", "userType", "channelName", "channelId",
+            "channelURL", "verified" };
+
+    private String id;
+    private String username;
+    private String email;
+    private String userType;
+    private String channelName;
+    private String channelId;
+    private String channelURL;
+    private boolean verified;
+
+    public static UserSummary from(User user) {
+        UserSummary summary = new UserSummary();
+        summary.id = user.getId();
+        summary.username = user.getUsername();
+        summary.email = user.getEmail();
+        summary.userType = user.getUserType();
+        summary.channelName = user.getChannelName();
+        summary.channelId = user.getChannelId();
+        summary.channelURL = user.getChannelURL();
+        summary.verified = user.isVerified();
+        return summary;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    public String getChannelName() {
+        return channelName;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public String getChannelURL() {
+        return channelURL;
+    }
+
+    public boolean isVerified() {
+        return verified;
+    }
+}
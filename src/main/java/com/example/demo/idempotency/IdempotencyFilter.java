@@ -0,0 +1,257 @@
+package com.example.demo.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Makes POSTs to the apply endpoints that carry an {@value #HEADER} header
+ * safe to retry. The first request with a key runs normally and its response
+ * is stored; repeats within the TTL get the stored response back without
+ * reaching the controller, so nothing is written to Mongo and no email is sent
+ * twice. A repeat that arrives while the first is still running gets 409, and
+ * one with a different body gets 422.
+ *
+ * Keys are scoped to the path and the authenticated user, so one caller can
+ * never be handed another's response. The filter runs after the security
+ * chain, which has set the user by then.
+ *
+ * Server errors release the key so the client can retry. When the store has
+ * no room for another key the request is refused with 503 rather than run
+ * unprotected. Works for both synchronous and asynchronous (reactive return
+ * type) handlers.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String KEY_ATTRIBUTE = IdempotencyFilter.class.getName() + ".key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String ANONYMOUS = "anonymous";
+    private static final String FULL_RETRY_AFTER_SECONDS = "1";
+
+    /** Endpoints where a retried request would apply or notify twice. */
+    private static final String[] PATHS = {
+        "/api/users/application/opportunity/{id}/apply",
+        "/api/users/application/opportunity/{id}/apply/bulk",
+        "/api/users/collabration/applyForCollab/{collabId}",
+        "/api/users/collabration/addCollab/{id}"
+    };
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Value("${idempotency.max-response-bytes:262144}")
+    private int maxResponseBytes;
+    @Value("${idempotency.max-request-bytes:1048576}")
+    private int maxRequestBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : PATHS) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // The response of an async handler is only complete on its async dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key;
+        ContentCachingResponseWrapper wrapper;
+        if (isAsyncDispatch(request)) {
+            key = (String) request.getAttribute(KEY_ATTRIBUTE);
+            wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (key == null || wrapper == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+        } else {
+            String clientKey = request.getHeader(HEADER);
+            if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + HEADER + " header");
+                return;
+            }
+            if (request.getContentLengthLong() > maxRequestBytes) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body too large");
+                return;
+            }
+            byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+            if (body.length > maxRequestBytes) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request body too large");
+                return;
+            }
+            // Scoped to the endpoint and caller so one key cannot replay someone else's response
+            key = request.getRequestURI() + "|" + principal() + "|" + clientKey;
+            String bodyHash = hash(body);
+            IdempotencyStore.StoredResponse existing = idempotencyStore.claim(key, bodyHash);
+            if (existing == IdempotencyStore.FULL) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, FULL_RETRY_AFTER_SECONDS);
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        "Too many requests in progress, please retry");
+                return;
+            }
+            if (existing != null) {
+                if (!existing.matches(bodyHash)) {
+                    response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                            "This " + HEADER + " was already used with a different request body");
+                    return;
+                }
+                replay(existing, response);
+                return;
+            }
+            request.setAttribute(KEY_ATTRIBUTE, key);
+            // The body has been read, so the controller is handed the buffered copy
+            request = new BufferedBodyRequest(request, body);
+            wrapper = new ContentCachingResponseWrapper(response);
+        }
+
+        boolean completed = false;
+        try {
+            chain.doFilter(request, wrapper);
+            completed = true;
+        } finally {
+            if (!completed) {
+                idempotencyStore.release(key);
+            } else if (!isAsyncStarted(request)) {
+                finish(key, wrapper);
+            }
+        }
+    }
+
+    private void finish(String key, ContentCachingResponseWrapper wrapper) throws IOException {
+        int status = wrapper.getStatus();
+        if (status >= 500 || wrapper.getContentSize() > maxResponseBytes) {
+            idempotencyStore.release(key);
+        } else {
+            idempotencyStore.complete(key, status, wrapper.getContentType(), wrapper.getContentAsByteArray());
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS;
+        }
+        return authentication.getName();
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response)
+            throws IOException {
+        if (stored.isInProgress()) {
+            response.sendError(HttpStatus.CONFLICT.value(),
+                    "A request with this " + HEADER + " is still being processed");
+            return;
+        }
+        response.setStatus(stored.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    /**
+     * A request whose body was already read, served again from memory.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
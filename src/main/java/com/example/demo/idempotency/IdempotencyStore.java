@@ -0,0 +1,264 @@
+package com.example.demo.idempotency;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Remembers the outcome of requests sent with an {@code Idempotency-Key} for a
+ * limited time.
+ *
+ * Keys live in a concurrent map with a per-entry expiry. Two generations of
+ * Bloom filters sit in front of the map so a lookup for a never-seen key,
+ * the common case, does not touch it; the older generation is dropped once
+ * every key it holds has expired.
+ *
+ * Stored response bodies are capped at {@code idempotency.max-total-bytes}
+ * in total. A response that would go over the cap is not stored and its key
+ * is released, so a retry simply runs again.
+ *
+ * Once {@code idempotency.max-keys} keys are held, claiming a new key first
+ * evicts the completed entries closest to expiry; if every held key is still
+ * in progress the claim is refused with {@link #FULL}, so no request ever runs
+ * without its key being held.
+ */
+@Component
+public class IdempotencyStore {
+
+    /** Returned by {@link #claim} when the store is full of in-progress keys. */
+    public static final StoredResponse FULL = StoredResponse.inProgress(Long.MAX_VALUE, "");
+
+    /** Share of {@code max-keys} evicted at once, so a full store is not rescanned on every claim. */
+    private static final int EVICTION_FRACTION = 100;
+
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+    @Value("${idempotency.max-keys:100000}")
+    private int maxKeys;
+    @Value("${idempotency.max-total-bytes:67108864}")
+    private long maxTotalBytes;
+
+    private final ConcurrentHashMap<String, StoredResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile BloomFilter currentFilter;
+    private volatile BloomFilter previousFilter;
+    private volatile long currentFilterStartedAt;
+
+    @PostConstruct
+    public void init() {
+        currentFilter = newFilter();
+        previousFilter = newFilter();
+        currentFilterStartedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Claims a key for a new request.
+     *
+     * @param key         The scoped idempotency key.
+     * @param requestHash A hash of the request body, compared on repeats.
+     * @return {@code null} if the caller now owns the key and must later call
+     *         {@link #complete} or {@link #release}; otherwise the entry already
+     *         held for the key, which may still be in progress; or
+     *         {@link #FULL}, without a claim, when no room could be made.
+     */
+    public StoredResponse claim(String key, String requestHash) {
+        long now = System.currentTimeMillis();
+        StoredResponse existing = find(key, now);
+        if (existing != null) {
+            return existing;
+        }
+        if (entries.size() >= maxKeys) {
+            evictOldestCompleted();
+            if (entries.size() >= maxKeys) {
+                return FULL;
+            }
+        }
+        StoredResponse claimed = StoredResponse.inProgress(now + ttlSeconds * 1000, requestHash);
+        currentFilter.add(key);
+        StoredResponse[] held = new StoredResponse[1];
+        entries.compute(key, (k, entry) -> {
+            if (entry != null && !entry.isExpired(now)) {
+                held[0] = entry;
+                return entry;
+            }
+            return claimed;
+        });
+        return held[0];
+    }
+
+    /**
+     * Stores the response of a claimed key so retries replay it, or releases
+     * the key if the store has no room left for the body.
+     */
+    public void complete(String key, int status, String contentType, byte[] body) {
+        byte[] stored = body == null ? new byte[0] : body;
+        entries.computeIfPresent(key, (k, entry) -> {
+            if (!entry.isInProgress()) {
+                return entry;
+            }
+            if (storedBytes.addAndGet(stored.length) > maxTotalBytes) {
+                storedBytes.addAndGet(-stored.length);
+                return null;
+            }
+            return StoredResponse.completed(entry.getExpiresAt(), entry.getRequestHash(), status, contentType,
+                    stored);
+        });
+    }
+
+    /**
+     * Gives up a claimed key so the request can be retried, e.g. after a
+     * server error.
+     */
+    public void release(String key) {
+        entries.computeIfPresent(key, (k, entry) -> entry.isInProgress() ? null : entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long storedBytes() {
+        return storedBytes.get();
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, StoredResponse> entry : entries.entrySet()) {
+            StoredResponse stored = entry.getValue();
+            if (stored.isExpired(now) && entries.remove(entry.getKey(), stored) && !stored.isInProgress()) {
+                storedBytes.addAndGet(-stored.getBody().length);
+            }
+        }
+        if (now - currentFilterStartedAt >= ttlSeconds * 1000) {
+            // Everything added before the current generation started has expired by now
+            previousFilter = currentFilter;
+            currentFilter = newFilter();
+            currentFilterStartedAt = now;
+        }
+    }
+
+    /**
+     * Drops the completed entries closest to expiry; their keys simply run
+     * again if retried.
+     */
+    private void evictOldestCompleted() {
+        // One scan at a time; concurrent claims see its result rather than repeat it
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evictOldestCompletedLocked();
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void evictOldestCompletedLocked() {
+        int batch = Math.max(1, maxKeys / EVICTION_FRACTION);
+        // Latest expiry at the head, so the head is dropped whenever an older entry turns up
+        PriorityQueue<Map.Entry<String, StoredResponse>> oldest = new PriorityQueue<>(batch + 1,
+                Comparator.comparingLong((Map.Entry<String, StoredResponse> entry) -> entry.getValue().getExpiresAt())
+                        .reversed());
+        for (Map.Entry<String, StoredResponse> entry : entries.entrySet()) {
+            if (!entry.getValue().isInProgress()) {
+                oldest.add(Map.entry(entry.getKey(), entry.getValue()));
+                if (oldest.size() > batch) {
+                    oldest.poll();
+                }
+            }
+        }
+        for (Map.Entry<String, StoredResponse> entry : oldest) {
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                storedBytes.addAndGet(-entry.getValue().getBody().length);
+            }
+        }
+    }
+
+    private StoredResponse find(String key, long now) {
+        if (!currentFilter.mightContain(key) && !previousFilter.mightContain(key)) {
+            return null;
+        }
+        StoredResponse entry = entries.get(key);
+        return entry == null || entry.isExpired(now) ? null : entry;
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(maxKeys, 0.01);
+    }
+
+    /**
+     * The state of one key: still being processed, or the response to replay.
+     */
+    public static final class StoredResponse {
+
+        private final long expiresAt;
+        private final String requestHash;
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        private StoredResponse(long expiresAt, String requestHash, int status, String contentType, byte[] body) {
+            this.expiresAt = expiresAt;
+            this.requestHash = requestHash;
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static StoredResponse inProgress(long expiresAt, String requestHash) {
+            return new StoredResponse(expiresAt, requestHash, 0, null, null);
+        }
+
+        static StoredResponse completed(long expiresAt, String requestHash, int status, String contentType,
+                byte[] body) {
+            return new StoredResponse(expiresAt, requestHash, status, contentType, body);
+        }
+
+        public boolean isInProgress() {
+            return body == null;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+
+        String getRequestHash() {
+            return requestHash;
+        }
+
+        /**
+         * @param requestHash A hash of a repeat's request body.
+         * @return Whether the repeat sent the same body as the first request.
+         */
+        public boolean matches(String requestHash) {
+            return this.requestHash.equals(requestHash);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
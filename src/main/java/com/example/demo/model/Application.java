@@ -0,0 +1,59 @@
+package com.example.demo.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * An application to a {@link PostOpportunity}, stored as its own document so
+ * applying is a single insert rather than a rewrite of the opportunity.
+ */
+@Document(collection = "applications")
+public class Application {
+
+    @Id
+    private String id;
+    private String opportunityId;
+    private String userId;
+    private Applicant applicant;
+
+    public Application() {
+    }
+
+    public Application(String opportunityId, Applicant applicant) {
+        this.opportunityId = opportunityId;
+        this.userId = applicant.getUserId();
+        this.applicant = applicant;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOpportunityId() {
+        return opportunityId;
+    }
+
+    public void setOpportunityId(String opportunityId) {
+        this.opportunityId = opportunityId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Applicant getApplicant() {
+        return applicant;
+    }
+
+    public void setApplicant(Applicant applicant) {
+        this.applicant = applicant;
+    }
+}
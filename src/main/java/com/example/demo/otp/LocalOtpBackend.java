@@ -0,0 +1,73 @@
+package com.example.demo.otp;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory {@link OtpBackend} on a {@link ConcurrentHashMap}, with expired
+ * codes removed by a {@link TimingWheel} rather than by scanning the map.
+ */
+public class LocalOtpBackend implements OtpBackend, AutoCloseable {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SLOTS = 1024;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final TimingWheel<Entry> wheel = new TimingWheel<>(WHEEL_SLOTS, TICK_MILLIS,
+            entry -> entries.remove(entry.email, entry));
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "otp-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LocalOtpBackend() {
+        ticker.scheduleAtFixedRate(wheel::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(String email, String otp, long expiresAt) {
+        Entry entry = new Entry(email, otp.getBytes(StandardCharsets.UTF_8), expiresAt);
+        entries.put(email, entry);
+        wheel.schedule(entry, expiresAt);
+    }
+
+    @Override
+    public boolean consume(String email, String otp) {
+        Entry entry = entries.get(email);
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+            return false;
+        }
+        if (!MessageDigest.isEqual(entry.otp, otp.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        // Only one concurrent verification of the same code can succeed
+        return entries.remove(email, entry);
+    }
+
+    @Override
+    public long size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private static final class Entry {
+        private final String email;
+        private final byte[] otp;
+        private final long expiresAt;
+
+        private Entry(String email, byte[] otp, long expiresAt) {
+            this.email = email;
+            this.otp = otp;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
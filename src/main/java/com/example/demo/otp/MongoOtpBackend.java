@@ -0,0 +1,48 @@
+package com.example.demo.otp;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * {@link OtpBackend} shared by every node through a Mongo collection. Mongo's
+ * TTL monitor removes expired codes, and a verification is a single
+ * find-and-remove so a code is accepted at most once across the cluster.
+ */
+public class MongoOtpBackend implements OtpBackend {
+
+    private static final String COLLECTION = "otps";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoOtpBackend(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        mongoTemplate.indexOps(COLLECTION)
+                .ensureIndex(new Index("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public void put(String email, String otp, long expiresAt) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(email)),
+                new Update().set("otp", otp).set("expiresAt", new Date(expiresAt)), COLLECTION);
+    }
+
+    @Override
+    public boolean consume(String email, String otp) {
+        Query query = Query.query(Criteria.where("_id").is(email).and("otp").is(otp)
+                .and("expiresAt").gt(new Date()));
+        return mongoTemplate.findAndRemove(query, Document.class, COLLECTION) != null;
+    }
+
+    @Override
+    public long size() {
+        return mongoTemplate.estimatedCount(COLLECTION);
+    }
+}
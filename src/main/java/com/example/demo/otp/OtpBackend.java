@@ -0,0 +1,31 @@
+package com.example.demo.otp;
+
+/**
+ * Storage for outstanding one-time passwords. The local backend keeps them in
+ * memory; a shared backend lets several nodes verify each other's codes.
+ */
+public interface OtpBackend {
+
+    /**
+     * Stores a code for an email, replacing any earlier one.
+     *
+     * @param email     The email the code was sent to.
+     * @param otp       The code.
+     * @param expiresAt Expiry in epoch milliseconds.
+     */
+    void put(String email, String otp, long expiresAt);
+
+    /**
+     * Removes and accepts the code if it matches and has not expired.
+     *
+     * @param email The email.
+     * @param otp   The submitted code.
+     * @return {@code true} if the code was valid.
+     */
+    boolean consume(String email, String otp);
+
+    /**
+     * @return The number of outstanding codes, or -1 if unknown.
+     */
+    long size();
+}
@@ -0,0 +1,161 @@
+package com.example.demo.otp;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.MailTest.OTPService;
+import com.example.demo.config.DownstreamLimits;
+import com.example.demo.config.ExecutionModeConfig;
+import com.example.demo.ratelimit.KeyedRateLimiter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Issues and verifies registration OTPs. Codes are stored before the email is
+ * sent, the email is sent off the request thread, and both requesting and
+ * verifying are rate limited per email and per client IP. Emails are
+ * compared case-insensitively throughout.
+ */
+@Service
+public class OtpStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OtpStore.class);
+
+    @Autowired
+    private OtpBackend otpBackend;
+    @Autowired
+    private OTPService otpService;
+    @Autowired
+    private DownstreamLimits downstreamLimits;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${" + ExecutionModeConfig.MODE_PROPERTY + ":platform}")
+    private String executionMode;
+    @Value("${otp.ttl-seconds:300}")
+    private long ttlSeconds;
+    @Value("${otp.rate-limit.per-email.burst:3}")
+    private int perEmailBurst;
+    @Value("${otp.rate-limit.per-email.per-minute:1}")
+    private double perEmailPerMinute;
+    @Value("${otp.rate-limit.per-ip.burst:10}")
+    private int perIpBurst;
+    @Value("${otp.rate-limit.per-ip.per-minute:10}")
+    private double perIpPerMinute;
+    @Value("${otp.rate-limit.verify-per-email.burst:5}")
+    private int verifyPerEmailBurst;
+    @Value("${otp.rate-limit.verify-per-email.per-minute:5}")
+    private double verifyPerEmailPerMinute;
+    @Value("${otp.rate-limit.max-tracked-keys:100000}")
+    private int maxTrackedKeys;
+
+    private KeyedRateLimiter emailLimiter;
+    private KeyedRateLimiter ipLimiter;
+    private KeyedRateLimiter verifyEmailLimiter;
+    private ThreadPoolExecutor mailExecutor;
+
+    @PostConstruct
+    public void init() {
+        emailLimiter = new KeyedRateLimiter(perEmailBurst, perEmailPerMinute / 60.0, maxTrackedKeys);
+        ipLimiter = new KeyedRateLimiter(perIpBurst, perIpPerMinute / 60.0, maxTrackedKeys);
+        verifyEmailLimiter = new KeyedRateLimiter(verifyPerEmailBurst, verifyPerEmailPerMinute / 60.0,
+                maxTrackedKeys);
+        mailExecutor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1000),
+                ExecutionModeConfig.workerThreads(executionMode, "otp-mail"), new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("otp.outstanding", this, OtpStore::getOutstandingCount)
+                    .register(registry);
+            Gauge.builder("otp.mail.queue.depth", mailExecutor, executor -> executor.getQueue().size())
+                    .register(registry);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mailExecutor.shutdown();
+    }
+
+    /**
+     * Admits an OTP request if both the client's and the email's bucket have a
+     * token.
+     *
+     * @param email    The email the request is for.
+     * @param clientIp The client address.
+     * @return {@code true} if the request may proceed.
+     */
+    public boolean tryAcquireRequest(String email, String clientIp) {
+        return ipLimiter.tryAcquire(clientIp) && emailLimiter.tryAcquire(key(email));
+    }
+
+    /**
+     * Admits a verification attempt, limiting guesses per email and per client.
+     *
+     * @param email    The email being verified.
+     * @param clientIp The client address.
+     * @return {@code true} if the attempt may proceed.
+     */
+    public boolean tryAcquireVerification(String email, String clientIp) {
+        return ipLimiter.tryAcquire(clientIp) && verifyEmailLimiter.tryAcquire(key(email));
+    }
+
+    /**
+     * Generates and stores a new code, then sends it asynchronously.
+     *
+     * @param email The email to send the code to.
+     * @return {@code false} if the mail queue is full and no email will be
+     *         sent; the stored code is replaced by the next request.
+     */
+    public boolean issue(String email) {
+        String otp = otpService.generateOTP();
+        otpBackend.put(key(email), otp, System.currentTimeMillis() + ttlSeconds * 1000);
+        try {
+            mailExecutor.execute(() -> send(email, otp));
+        } catch (RejectedExecutionException e) {
+            log.warn("OTP mail queue full, not sending OTP email");
+            return false;
+        }
+        return true;
+    }
+
+    private void send(String email, String otp) {
+        try {
+            downstreamLimits.withSmtpPermit(() -> otpService.sendOTPEmail(email, otp));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Failed to send OTP email to {}", email, e);
+        }
+    }
+
+    /**
+     * Accepts a code at most once.
+     *
+     * @param email The email.
+     * @param otp   The submitted code.
+     * @return {@code true} if the code was valid and unexpired.
+     */
+    public boolean verify(String email, String otp) {
+        return otp != null && otpBackend.consume(key(email), otp);
+    }
+
+    public long getOutstandingCount() {
+        return otpBackend.size();
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
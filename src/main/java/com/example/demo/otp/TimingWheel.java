@@ -0,0 +1,76 @@
+package com.example.demo.otp;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for expiring entries without scanning them. Each slot
+ * covers one tick; an entry is added to the slot its deadline falls into and
+ * handed to the expiry callback when the wheel reaches that slot. Deadlines
+ * further out than one revolution wait for the required number of rounds.
+ *
+ * @param <T> The scheduled item type.
+ */
+class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final ConcurrentLinkedQueue<Timeout<T>>[] slots;
+    private final Consumer<T> onExpiry;
+    private long currentTick;
+    private final long startedAt = System.currentTimeMillis();
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(int slotCount, long tickMillis, Consumer<T> onExpiry) {
+        this.tickMillis = tickMillis;
+        this.onExpiry = onExpiry;
+        this.slots = new ConcurrentLinkedQueue[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Schedules an item to expire at a deadline. Safe to call from any thread.
+     *
+     * @param item       The item.
+     * @param deadlineMs The deadline in epoch milliseconds.
+     */
+    void schedule(T item, long deadlineMs) {
+        long tick = Math.max((deadlineMs - startedAt + tickMillis - 1) / tickMillis, 0);
+        slots[(int) (tick % slots.length)].add(new Timeout<>(item, tick));
+    }
+
+    /**
+     * Advances the wheel to the current time, expiring every due item. Must
+     * only be called from one thread at a time.
+     */
+    void advance() {
+        long targetTick = (System.currentTimeMillis() - startedAt) / tickMillis;
+        while (currentTick <= targetTick) {
+            ConcurrentLinkedQueue<Timeout<T>> slot = slots[(int) (currentTick % slots.length)];
+            int pending = slot.size();
+            for (int i = 0; i < pending; i++) {
+                Timeout<T> timeout = slot.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.tick <= currentTick) {
+                    onExpiry.accept(timeout.item);
+                } else {
+                    slot.add(timeout);
+                }
+            }
+            currentTick++;
+        }
+    }
+
+    private static final class Timeout<T> {
+        private final T item;
+        private final long tick;
+
+        private Timeout(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.demo.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Decides whether a request to a public endpoint may run. Each route group has
+ * a per-client budget, counted by the {@link RateLimitBackend} so it can be
+ * shared between nodes, and an {@link AimdLimit} on how many of its requests
+ * this node runs at once. Anything over either limit is refused at once; no
+ * request waits for a slot.
+ *
+ * A listing that is streamed or asked for without {@code after}/{@code limit}
+ * runs for as long as the collection takes to send, which says nothing about
+ * congestion. Such requests go to the separate {@value #STREAM} group instead,
+ * whose concurrency is fixed at {@code admission.stream.max-concurrent} and
+ * never fed their latency, so only bounded responses steer the listing limit.
+ *
+ * Paths outside the route table, and everything when
+ * {@code admission.enabled=false}, are not limited.
+ */
+@Component
+public class AdmissionControl {
+
+    public static final String AUTH = "auth";
+    public static final String LISTING = "listing";
+    public static final String STREAM = "stream";
+
+    private static final String[] AUTH_PATHS = {
+        "/api/users/login",
+        "/api/users/register",
+        "/api/users/request-otp",
+        "/api/users/verify-otp",
+        "/api/users/oauth/login",
+        "/api/users/oauth/register"
+    };
+    private static final String[] LISTING_PATHS = {
+        "/api/users/opportunities/opportunitiesGetAll",
+        "/api/users/collabration/getCollabOfAllUsers",
+        "/api/users/search"
+    };
+    /** Listings that can also be streamed or read unpaged, see {@link #STREAM}. */
+    private static final String[] STREAMABLE_PATHS = {
+        "/api/users/opportunities/opportunitiesGetAll",
+        "/api/users/collabration/getCollabOfAllUsers"
+    };
+
+    @Autowired
+    private RateLimitBackend rateLimitBackend;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${admission.enabled:true}")
+    private boolean enabled;
+    @Value("${admission.auth.burst:10}")
+    private long authBurst;
+    @Value("${admission.auth.per-second:0.5}")
+    private double authPerSecond;
+    @Value("${admission.auth.max-concurrent:64}")
+    private int authMaxConcurrent;
+    // Password hashing alone takes a good part of this
+    @Value("${admission.auth.target-latency-ms:1000}")
+    private long authTargetLatencyMs;
+    @Value("${admission.listing.burst:30}")
+    private long listingBurst;
+    @Value("${admission.listing.per-second:5}")
+    private double listingPerSecond;
+    @Value("${admission.listing.max-concurrent:128}")
+    private int listingMaxConcurrent;
+    @Value("${admission.listing.target-latency-ms:250}")
+    private long listingTargetLatencyMs;
+    @Value("${admission.stream.burst:3}")
+    private long streamBurst;
+    @Value("${admission.stream.per-second:0.2}")
+    private double streamPerSecond;
+    @Value("${admission.stream.max-concurrent:16}")
+    private int streamMaxConcurrent;
+    @Value("${admission.concurrency.initial:32}")
+    private int initialConcurrent;
+    @Value("${admission.concurrency.min:4}")
+    private int minConcurrent;
+    @Value("${admission.concurrency.backoff:0.75}")
+    private double backoff;
+    @Value("${admission.concurrency.cooldown-ms:1000}")
+    private long cooldownMs;
+
+    private final Map<String, Route> routesByPath = new HashMap<>();
+    private final Map<String, Route> streamRoutesByPath = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Route auth = new Route(AUTH, authBurst, authPerSecond, new AimdLimit(initialConcurrent, minConcurrent,
+                authMaxConcurrent, authTargetLatencyMs, backoff, cooldownMs), true);
+        Route listing = new Route(LISTING, listingBurst, listingPerSecond, new AimdLimit(initialConcurrent,
+                minConcurrent, listingMaxConcurrent, listingTargetLatencyMs, backoff, cooldownMs), true);
+        Route stream = new Route(STREAM, streamBurst, streamPerSecond, new AimdLimit(streamMaxConcurrent,
+                streamMaxConcurrent, streamMaxConcurrent, listingTargetLatencyMs, backoff, cooldownMs), false);
+        for (String path : AUTH_PATHS) {
+            routesByPath.put(path, auth);
+        }
+        for (String path : LISTING_PATHS) {
+            routesByPath.put(path, listing);
+        }
+        for (String path : STREAMABLE_PATHS) {
+            streamRoutesByPath.put(path, stream);
+        }
+        meterRegistry.ifAvailable(registry -> {
+            for (Route route : new Route[] { auth, listing, stream }) {
+                Gauge.builder("admission.limit", route.limit, AimdLimit::getLimit)
+                        .tag("route", route.name).register(registry);
+                Gauge.builder("admission.inflight", route.limit, AimdLimit::getInFlight)
+                        .tag("route", route.name).register(registry);
+                route.rateRejections = Counter.builder("admission.rejected")
+                        .tag("route", route.name).tag("reason", "rate").register(registry);
+                route.concurrencyRejections = Counter.builder("admission.rejected")
+                        .tag("route", route.name).tag("reason", "concurrency").register(registry);
+            }
+            Gauge.builder("admission.tracked.clients", rateLimitBackend, RateLimitBackend::size)
+                    .register(registry);
+        });
+    }
+
+    /**
+     * Admits or refuses a request.
+     *
+     * @param path   The request path within the application.
+     * @param client  The client key, its address as resolved from the
+     *                forwarded headers (see {@code proxy.properties}).
+     * @param bounded Whether the response is a single bounded page rather
+     *                than a stream or an unpaged listing.
+     * @return A permit to release when the request is done, or a rejected one.
+     */
+    public Permit admit(String path, String client, boolean bounded) {
+        Route route = null;
+        if (enabled) {
+            route = bounded ? null : streamRoutesByPath.get(path);
+            if (route == null) {
+                route = routesByPath.get(path);
+            }
+        }
+        if (route == null) {
+            return Permit.UNLIMITED;
+        }
+        // The slot is taken first so a shared backend sees at most the limit's worth of calls
+        if (!route.limit.tryAcquire()) {
+            count(route.concurrencyRejections);
+            return Permit.rejected(1);
+        }
+        if (!rateLimitBackend.tryAcquire(route.name, client, route.burst, route.perSecond)) {
+            route.limit.cancel();
+            count(route.rateRejections);
+            return Permit.rejected((int) Math.ceil(1 / route.perSecond));
+        }
+        return new Permit(route.limit, route.adaptive);
+    }
+
+    private static void count(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static final class Route {
+        private final String name;
+        private final long burst;
+        private final double perSecond;
+        private final AimdLimit limit;
+        private final boolean adaptive;
+        private Counter rateRejections;
+        private Counter concurrencyRejections;
+
+        private Route(String name, long burst, double perSecond, AimdLimit limit, boolean adaptive) {
+            this.name = name;
+            this.burst = burst;
+            this.perSecond = perSecond;
+            this.limit = limit;
+            this.adaptive = adaptive;
+        }
+    }
+
+    /**
+     * The outcome of {@link AdmissionControl#admit}. An admitted request holds
+     * a concurrency slot until {@link #release()}, which may be called more
+     * than once. Only permits of adaptive groups report their latency.
+     */
+    public static final class Permit {
+
+        static final Permit UNLIMITED = new Permit(null, false);
+
+        private final AimdLimit limit;
+        private final boolean adaptive;
+        private final int retryAfterSeconds;
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AimdLimit limit, boolean adaptive) {
+            this(limit, adaptive, 0);
+        }
+
+        private Permit(AimdLimit limit, boolean adaptive, int retryAfterSeconds) {
+            this.limit = limit;
+            this.adaptive = adaptive;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        static Permit rejected(int retryAfterSeconds) {
+            return new Permit(null, false, Math.max(1, retryAfterSeconds));
+        }
+
+        public boolean isRejected() {
+            return retryAfterSeconds > 0;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void release() {
+            if (limit == null || !released.compareAndSet(false, true)) {
+                return;
+            }
+            if (adaptive) {
+                limit.release(System.nanoTime() - startedAt);
+            } else {
+                limit.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.ratelimit;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.demo.service.MongoCursorPager;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Applies {@link AdmissionControl} to incoming requests. Refused requests get
+ * 429 with a {@code Retry-After} header straight away. An admitted request
+ * keeps its slot until its response is complete, including for asynchronous
+ * (reactive return type) handlers.
+ *
+ * Clients are keyed on {@code getRemoteAddr()}, which is only the client's
+ * own address because {@link com.example.demo.config.ProxyConfig} has Tomcat
+ * apply the load balancer's {@code X-Forwarded-For}. If that is switched off,
+ * every client shares the proxy's budget; the first request that looks like
+ * it came through an unapplied proxy logs a warning.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionFilter.class);
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final AdmissionControl admissionControl;
+    private final AtomicBoolean warnedUnforwarded = new AtomicBoolean();
+
+    public AdmissionFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String client = request.getRemoteAddr();
+        if (!warnedUnforwarded.get() && request.getHeader(FORWARDED_FOR) != null && isInternal(client)
+                && warnedUnforwarded.compareAndSet(false, true)) {
+            log.warn("Request from {} still carries {}; forwarded headers are not being applied, so admission "
+                    + "control counts every client behind that proxy as one. See proxy.properties.",
+                    client, FORWARDED_FOR);
+        }
+        AdmissionControl.Permit permit = admissionControl.admit(path, client, isBounded(request));
+        if (permit.isRejected()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(permit.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests. Please try again later.");
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new ReleasingListener(permit));
+            }
+        } finally {
+            if (!async) {
+                permit.release();
+            }
+        }
+    }
+
+    // A listing is one bounded page only when it is not streamed and names a cursor or page size
+    private static boolean isBounded(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MongoCursorPager.NDJSON)) {
+            return false;
+        }
+        return request.getParameter("after") != null || request.getParameter("limit") != null;
+    }
+
+    // RemoteIpValve strips the header once it has taken the client address from it
+    private static boolean isInternal(String address) {
+        try {
+            InetAddress parsed = InetAddress.getByName(address);
+            return parsed.isSiteLocalAddress() || parsed.isLoopbackAddress() || parsed.isLinkLocalAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static final class ReleasingListener implements AsyncListener {
+        private final AdmissionControl.Permit permit;
+
+        private ReleasingListener(AdmissionControl.Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Still running; released when the new cycle completes
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
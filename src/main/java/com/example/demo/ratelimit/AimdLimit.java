@@ -0,0 +1,125 @@
+package com.example.demo.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free concurrency limit that adapts to observed latency with additive
+ * increase, multiplicative decrease. Every call that finishes within the
+ * target latency while the limit was in use raises the limit by
+ * {@code 1 / limit}, so about one per limit's worth of calls; a slower call
+ * cuts it by {@code backoff}, at most once per {@code cooldownMillis} so a
+ * burst of slow calls that were admitted together only counts once.
+ *
+ * Calls over the limit are refused immediately rather than queued.
+ */
+public class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final double backoff;
+    private final long cooldownNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // The limit as double bits, so fractional increases accumulate
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param initialLimit   The starting limit.
+     * @param minLimit       The limit never drops below this.
+     * @param maxLimit       The limit never grows above this.
+     * @param targetMillis   Calls slower than this count as congestion.
+     * @param backoff        Factor applied to the limit on congestion, in (0, 1).
+     * @param cooldownMillis Minimum time between two decreases.
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long targetMillis, double backoff,
+            long cooldownMillis) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.targetNanos = targetMillis * 1_000_000;
+        this.backoff = backoff;
+        this.cooldownNanos = cooldownMillis * 1_000_000;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit))));
+    }
+
+    /**
+     * Takes a slot if fewer than the current limit are in use.
+     *
+     * @return {@code true} if a slot was taken; it must be given back with
+     *         {@link #release(long)}.
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot and adjusts the limit.
+     *
+     * @param latencyNanos How long the call held its slot.
+     */
+    public void release(long latencyNanos) {
+        int before = inFlight.getAndDecrement();
+        if (latencyNanos > targetNanos) {
+            decrease();
+        } else if (before * 2 >= getLimit()) {
+            // Only grow when the limit is actually being used, otherwise it drifts to the max
+            increase();
+        }
+    }
+
+    /**
+     * Gives back a slot without adjusting the limit, for a call that was
+     * refused before it ran.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    private void increase() {
+        while (true) {
+            long current = limitBits.get();
+            double limit = Double.longBitsToDouble(current);
+            if (limit >= maxLimit) {
+                return;
+            }
+            double next = Math.min(maxLimit, limit + 1.0 / limit);
+            if (limitBits.compareAndSet(current, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        long last = lastDecrease.get();
+        if (now - last < cooldownNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+        while (true) {
+            long current = limitBits.get();
+            double next = Math.max(minLimit, Double.longBitsToDouble(current) * backoff);
+            if (limitBits.compareAndSet(current, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
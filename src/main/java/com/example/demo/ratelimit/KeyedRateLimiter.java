@@ -0,0 +1,73 @@
+package com.example.demo.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One {@link TokenBucket} per key (an email, an IP address, ...), holding at
+ * most {@code maxKeys} buckets. Keys are spread over a fixed number of
+ * segments, each a small LRU map under its own lock; when a segment is full
+ * the bucket used longest ago is dropped, so every call is constant time no
+ * matter how many keys are tracked. A dropped key simply starts again from a
+ * full bucket.
+ */
+public class KeyedRateLimiter {
+
+    private static final int SEGMENTS = 16;
+
+    private final long capacity;
+    private final double refillPerSecond;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public KeyedRateLimiter(long capacity, double refillPerSecond, int maxKeys) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        int perSegment = Math.max(1, (maxKeys + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public boolean tryAcquire(String key) {
+        Segment segment = segmentFor(key);
+        TokenBucket bucket;
+        synchronized (segment) {
+            bucket = segment.get(key);
+            if (bucket == null) {
+                bucket = new TokenBucket(capacity, refillPerSecond);
+                segment.put(key, bucket);
+            }
+        }
+        // The bucket itself is lock-free, so the take happens outside the segment lock
+        return bucket.tryAcquire();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment extends LinkedHashMap<String, TokenBucket> {
+        private final int maxKeys;
+
+        private Segment(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+            return size() > maxKeys;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RateLimitBackend} on this node's memory, one
+ * {@link KeyedRateLimiter} per route. Also what a single-node deployment and
+ * local runs use in place of the shared backend.
+ */
+public class LocalRateLimitBackend implements RateLimitBackend {
+
+    private final int maxKeysPerRoute;
+    private final ConcurrentHashMap<String, KeyedRateLimiter> routes = new ConcurrentHashMap<>();
+
+    public LocalRateLimitBackend(int maxKeysPerRoute) {
+        this.maxKeysPerRoute = maxKeysPerRoute;
+    }
+
+    @Override
+    public boolean tryAcquire(String route, String client, long burst, double refillPerSecond) {
+        return routes.computeIfAbsent(route, r -> new KeyedRateLimiter(burst, refillPerSecond, maxKeysPerRoute))
+                .tryAcquire(client);
+    }
+
+    @Override
+    public long size() {
+        return routes.values().stream().mapToLong(KeyedRateLimiter::size).sum();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.ratelimit;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * {@link RateLimitBackend} shared by every node through a Mongo collection.
+ * The bucket is approximated by a fixed window of {@code burst / rate}
+ * seconds holding {@code burst} requests, counted with one atomic upsert per
+ * request, and Mongo's TTL monitor removes old windows.
+ *
+ * If Mongo cannot be reached the request is counted by a local fallback
+ * instead, so an outage degrades to per-node limits rather than rejecting
+ * every public request.
+ */
+public class MongoRateLimitBackend implements RateLimitBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoRateLimitBackend.class);
+    private static final String COLLECTION = "rate_limits";
+    private static final long WARN_INTERVAL_MILLIS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final RateLimitBackend fallback;
+    private final AtomicLong lastWarning = new AtomicLong();
+
+    public MongoRateLimitBackend(MongoTemplate mongoTemplate, RateLimitBackend fallback) {
+        this.mongoTemplate = mongoTemplate;
+        this.fallback = fallback;
+        mongoTemplate.indexOps(COLLECTION)
+                .ensureIndex(new Index("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public boolean tryAcquire(String route, String client, long burst, double refillPerSecond) {
+        long windowMillis = Math.max(1000, (long) (burst * 1000 / refillPerSecond));
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        Query query = Query.query(Criteria.where("_id").is(route + "|" + client + "|" + window));
+        Update update = new Update().inc("count", 1)
+                .setOnInsert("expiresAt", new Date((window + 1) * windowMillis));
+        try {
+            long count;
+            try {
+                count = increment(query, update);
+            } catch (DuplicateKeyException e) {
+                // Two nodes opened the same window at once; the document exists now
+                count = increment(query, update);
+            }
+            return count <= burst;
+        } catch (RuntimeException e) {
+            long last = lastWarning.get();
+            if (now - last > WARN_INTERVAL_MILLIS && lastWarning.compareAndSet(last, now)) {
+                log.warn("Shared rate limit unavailable, counting locally: {}", e.getMessage());
+            }
+            return fallback.tryAcquire(route, client, burst, refillPerSecond);
+        }
+    }
+
+    private long increment(Query query, Update update) {
+        Document counter = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+        return counter == null ? 0 : counter.get("count", Number.class).longValue();
+    }
+
+    @Override
+    public long size() {
+        return mongoTemplate.estimatedCount(COLLECTION);
+    }
+}
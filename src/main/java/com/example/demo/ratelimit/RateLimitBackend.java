@@ -0,0 +1,24 @@
+package com.example.demo.ratelimit;
+
+/**
+ * Where per-client request budgets are counted. The local backend counts on
+ * this node only; a shared backend makes the limit apply across all nodes.
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Takes one request from a client's budget for a route.
+     *
+     * @param route           The route group.
+     * @param client          The client key, usually its address.
+     * @param burst           The most requests allowed at once.
+     * @param refillPerSecond The sustained requests per second.
+     * @return {@code true} if the request is within budget.
+     */
+    boolean tryAcquire(String route, String client, long burst, double refillPerSecond);
+
+    /**
+     * @return The number of tracked client budgets, or -1 if unknown.
+     */
+    long size();
+}
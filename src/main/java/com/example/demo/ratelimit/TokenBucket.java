@@ -0,0 +1,72 @@
+package com.example.demo.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The whole state is packed into one {@code long}, the
+ * number of whole tokens in the high bits and the time of the last refill
+ * (milliseconds since the bucket was created) in the low 40 bits, so a take is
+ * a single compare-and-set with no allocation.
+ */
+public class TokenBucket {
+
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private final long capacity;
+    private final double refillPerMilli;
+    private final long origin = System.currentTimeMillis();
+    private final AtomicLong state;
+
+    /**
+     * @param capacity        The maximum burst size.
+     * @param refillPerSecond Tokens added per second.
+     */
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerMilli = refillPerSecond / 1000.0;
+        this.state = new AtomicLong(pack(capacity, 0));
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return {@code true} if a token was taken.
+     */
+    public boolean tryAcquire() {
+        long now = (System.currentTimeMillis() - origin) & TIME_MASK;
+        while (true) {
+            long current = state.get();
+            long tokens = current >>> TIME_BITS;
+            long last = current & TIME_MASK;
+            long elapsed = now - last;
+            long refill = elapsed > 0 ? (long) (elapsed * refillPerMilli) : 0;
+            long available = Math.min(capacity, tokens + refill);
+            // Only move the refill clock forward by the time that produced whole tokens
+            long refilledAt = refill > 0
+                    ? (available == capacity ? now : last + (long) Math.ceil(refill / refillPerMilli))
+                    : last;
+            if (available == 0) {
+                return false;
+            }
+            if (state.compareAndSet(current, pack(available - 1, refilledAt))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return Whether the bucket is full, meaning it can be discarded without
+     *         changing behavior.
+     */
+    public boolean isFull() {
+        long current = state.get();
+        long tokens = current >>> TIME_BITS;
+        long elapsed = ((System.currentTimeMillis() - origin) & TIME_MASK) - (current & TIME_MASK);
+        return tokens + (long) (Math.max(elapsed, 0) * refillPerMilli) >= capacity;
+    }
+
+    private static long pack(long tokens, long time) {
+        return (tokens << TIME_BITS) | (time & TIME_MASK);
+    }
+}
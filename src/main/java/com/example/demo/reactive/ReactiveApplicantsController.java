@@ -0,0 +1,184 @@
+package com.example.demo.reactive;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.cascade.CascadeWorker;
+import com.example.demo.dto.BulkApplyResult;
+import com.example.demo.dto.PostingSummary;
+import com.example.demo.model.Applicant;
+import com.example.demo.model.Application;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.service.ApplicationService;
+import com.example.demo.service.ContentVersions;
+import com.example.demo.service.ListingResponses;
+import com.example.demo.service.PostingLookupService;
+import com.wcontent.service.EmailService;
+import com.wcontent.service.NotificationDigestScheduler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive variant of {@code ApplicantsController}, active with the
+ * {@code reactive} profile. Same URLs and responses; Mongo access is
+ * non-blocking and emails are sent as fire-and-forget side effects.
+ *
+ * These run under Spring MVC on the servlet container, not on a WebFlux
+ * server, so a connection still costs a servlet thread while it is open.
+ */
+@RestController
+@RequestMapping("/api/users/application")
+@Profile("reactive")
+public class ReactiveApplicantsController {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    @Autowired
+    private ReactiveCursorPager reactiveCursorPager;
+    @Autowired
+    private ApplicationService applicationService;
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private NotificationDigestScheduler notificationDigestScheduler;
+    @Autowired
+    private CascadeWorker cascadeWorker;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private ListingResponses listingResponses;
+    @Autowired
+    private PostingLookupService postingLookupService;
+
+    @Value("${applications.bulk.max-size:200}")
+    private int maxBulkApplicants;
+
+    @PostMapping("/opportunity/{id}/apply")
+    public Mono<ResponseEntity<String>> applyToOpportunity(
+            @PathVariable("id") String opportunityId,
+            @RequestBody Applicant applicant) {
+        return findNotificationTarget(opportunityId)
+                .flatMap(opportunity -> reactiveMongoTemplate.insert(new Application(opportunityId, applicant))
+                        .flatMap(saved -> Mono.fromRunnable(() -> contentVersions.bump(Application.class))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .thenReturn(saved))
+                        .doOnSuccess(saved -> ReactiveSideEffects.run(() -> {
+                            notificationDigestScheduler.newApplication(opportunity.getEmail(), applicant,
+                                    opportunity.getTitle(), opportunity.getId());
+                            emailService.sendApplicationConfirmation(applicant.getEmail(), opportunity.getTitle());
+                        }))
+                        .thenReturn(new ResponseEntity<>("Application submitted successfully", HttpStatus.OK)))
+                .defaultIfEmpty(new ResponseEntity<>("Opportunity not found", HttpStatus.NOT_FOUND));
+    }
+
+    @PostMapping("/opportunity/{id}/apply/bulk")
+    public Mono<ResponseEntity<?>> applyToOpportunityInBulk(
+            @PathVariable("id") String opportunityId,
+            @RequestBody List<Applicant> applicants) {
+        if (applicants == null || applicants.isEmpty()) {
+            return Mono.just(new ResponseEntity<>("No applicants provided", HttpStatus.BAD_REQUEST));
+        }
+        if (applicants.size() > maxBulkApplicants) {
+            return Mono.just(new ResponseEntity<>(
+                    "At most " + maxBulkApplicants + " applicants can be submitted at once", HttpStatus.BAD_REQUEST));
+        }
+        return findNotificationTarget(opportunityId)
+                // The bulk insert is a single blocking call, kept off the event loop
+                .flatMap(opportunity -> Mono.fromCallable(() -> applicationService.submitAll(opportunityId, applicants))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .<ResponseEntity<?>>map(results -> {
+                            List<Applicant> submitted = new ArrayList<>(results.size());
+                            for (BulkApplyResult result : results) {
+                                if (result.isSubmitted()) {
+                                    submitted.add(applicants.get(result.getIndex()));
+                                }
+                            }
+                            if (!submitted.isEmpty()) {
+                                ReactiveSideEffects.run(() -> {
+                                    notificationDigestScheduler.newApplications(opportunity.getEmail(), submitted,
+                                            opportunity.getTitle(), opportunity.getId());
+                                    for (Applicant applicant : submitted) {
+                                        emailService.sendApplicationConfirmation(applicant.getEmail(),
+                                                opportunity.getTitle());
+                                    }
+                                });
+                            }
+                            return new ResponseEntity<>(results, HttpStatus.OK);
+                        }))
+                .defaultIfEmpty(new ResponseEntity<>("Opportunity not found", HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Lists an opportunity's applicants in the order they applied, one page
+     * at a time; the next cursor is sent in the {@code X-Next-Cursor} header.
+     * Without {@code after} or {@code limit} the first page is the largest
+     * one allowed.
+     */
+    @GetMapping("/opportunity/{id}/applicants")
+    public Mono<ResponseEntity<?>> getApplicantsForOpportunity(@PathVariable("id") String opportunityId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, HttpServletRequest request) {
+        return findNotificationTarget(opportunityId).hasElement()
+                .flatMap(exists -> exists
+                        ? listingResponses.respondAsync(request, Application.class, () -> reactiveCursorPager.page(
+                                cascadeWorker.excludeDeleted(
+                                        applicationService.applicationsForOpportunity(opportunityId), "userId", false),
+                                Application.class, after, limit, Application::getId, Application::getApplicant)
+                                .<ResponseEntity<?>>map(page -> page))
+                        : Mono.just(new ResponseEntity<>("Opportunity not found", HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * Streams the user's applications; with {@code Accept: application/x-ndjson}
+     * each one is written as soon as its opportunity has been read.
+     */
+    @GetMapping("/myApplications/{userId}")
+    public Flux<Map<String, Object>> getMyApplications(@PathVariable("userId") String userId) {
+        Map<String, Mono<PostOpportunity>> opportunities = new ConcurrentHashMap<>();
+        return reactiveMongoTemplate.find(Query.query(Criteria.where("userId").is(userId)), Application.class)
+                .concatMap(application -> opportunities
+                        .computeIfAbsent(application.getOpportunityId(), id -> reactiveMongoTemplate
+                                .findById(id, PostOpportunity.class).cache())
+                        .map(opportunity -> toDetails(application, opportunity)));
+    }
+
+    // Shares the servlet path's summary cache; a miss is a blocking read, kept off the request thread
+    private Mono<PostingSummary> findNotificationTarget(String opportunityId) {
+        return Mono.fromCallable(() -> postingLookupService.findOpportunity(opportunityId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Map<String, Object> toDetails(Application application, PostOpportunity opportunity) {
+        Applicant applicant = application.getApplicant();
+        Map<String, Object> applicationDetails = new HashMap<>();
+        applicationDetails.put("opportunity", opportunity);
+        applicationDetails.put("_id", application.getId());
+        applicationDetails.put("applicationDate", applicant.getApplicationDate());
+        applicationDetails.put("resumeUrl", applicant.getResumeUrl());
+        applicationDetails.put("name", applicant.getName());
+        applicationDetails.put("email", applicant.getEmail());
+        return applicationDetails;
+    }
+}
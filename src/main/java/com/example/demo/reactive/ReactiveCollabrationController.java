@@ -0,0 +1,195 @@
+package com.example.demo.reactive;
+
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.cascade.CascadeWorker;
+import com.example.demo.dto.PostingSummary;
+import com.example.demo.model.CollabRequest;
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.User;
+import com.example.demo.repository.CollabRequestRepository;
+import com.example.demo.service.CollaborationService;
+import com.example.demo.service.ContentVersions;
+import com.example.demo.service.ListingResponses;
+import com.example.demo.service.MongoCursorPager;
+import com.example.demo.service.PostingLookupService;
+import com.example.demo.service.PostingSearchService;
+import com.wcontent.service.EmailService;
+import com.wcontent.service.NotificationDigestScheduler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive variant of {@code CollabrationController}, active with the
+ * {@code reactive} profile. Same URLs and responses; Mongo access is
+ * non-blocking and emails are sent as fire-and-forget side effects.
+ *
+ * These run under Spring MVC on the servlet container, not on a WebFlux
+ * server, so a connection still costs a servlet thread while it is open.
+ */
+@RestController
+@RequestMapping("/api/users/collabration")
+@Profile("reactive")
+public class ReactiveCollabrationController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCollabrationController.class);
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    @Autowired
+    private ReactiveCursorPager reactiveCursorPager;
+    @Autowired
+    private CollabRequestRepository collabRequestRepository;
+    @Autowired
+    private CollaborationService collaborationService;
+    @Autowired
+    private PostingLookupService postingLookupService;
+    @Autowired
+    private PostingSearchService postingSearchService;
+    @Autowired
+    private CascadeWorker cascadeWorker;
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private ListingResponses listingResponses;
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private NotificationDigestScheduler notificationDigestScheduler;
+
+    @PostMapping("/addCollab/{id}")
+    public Mono<ResponseEntity<?>> addCollab(@PathVariable String id, @RequestBody Collaboration collabration) {
+        return userExists(id).flatMap(exists -> {
+            if (!exists) {
+                return Mono.just(new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND));
+            }
+            collabration.setCreatorId(id);
+            return reactiveMongoTemplate.save(collabration)
+                    .flatMap(saved -> Mono.fromRunnable(() -> contentVersions.bump(Collaboration.class))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .thenReturn(saved))
+                    .doOnSuccess(postingSearchService::indexCollaboration)
+                    .map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+        });
+    }
+
+    /**
+     * Lists the collaborations a user created, one page at a time; the next
+     * cursor is sent in the {@code X-Next-Cursor} header. Without
+     * {@code after} or {@code limit} the first page is the largest one
+     * allowed.
+     */
+    @GetMapping("/getCollabOfUser/{id}")
+    public Mono<ResponseEntity<?>> getCollab(@PathVariable String id,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return userExists(id).flatMap(exists -> exists
+                ? reactiveCursorPager.page(
+                        cascadeWorker.excludeDeleted(collaborationService.collaborationsByCreator(id), "creatorId", true),
+                        Collaboration.class, after, limit, Collaboration::getId, Function.identity())
+                        .<ResponseEntity<?>>map(page -> page)
+                : Mono.just(new ResponseEntity<>("User not found", HttpStatus.NOT_FOUND)));
+    }
+
+    @GetMapping("/getCollabOfAllUsers")
+    public Mono<ResponseEntity<?>> getCollabOfAllUsers(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit, HttpServletRequest request) {
+        return listingResponses.respondAsync(request, Collaboration.class, () -> reactiveCursorPager.page(
+                collabListingQuery(), Collaboration.class, after, limit, Collaboration::getId, Function.identity())
+                .<ResponseEntity<?>>map(page -> page));
+    }
+
+    @GetMapping(value = "/getCollabOfAllUsers", produces = MongoCursorPager.NDJSON)
+    public Flux<Collaboration> streamCollabOfAllUsers() {
+        return reactiveCursorPager.stream(collabListingQuery(), Collaboration.class);
+    }
+
+    @PostMapping("/deleteCollab/{id}")
+    public Mono<ResponseEntity<String>> deleteCollab(@PathVariable String id) {
+        // Blocking but small: one upsert, and the tombstone must exist before the delete
+        return Mono.fromRunnable(() -> cascadeWorker.recordCollaborationDelete(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(reactiveMongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), Collaboration.class))
+                .flatMap(result -> Mono.fromRunnable(() -> contentVersions.bump(Collaboration.class))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .thenReturn(result))
+                .doOnSuccess(result -> {
+                    postingLookupService.invalidateCollaboration(id);
+                    postingSearchService.removeCollaboration(id);
+                })
+                .thenReturn(new ResponseEntity<>("Collabration deleted successfully", HttpStatus.OK));
+    }
+
+    @PostMapping("/applyForCollab/{collabId}")
+    public Mono<ResponseEntity<String>> applyForCollab(@PathVariable String collabId,
+            @RequestBody CollabRequest collabRequest) {
+        return reactiveMongoTemplate.updateFirst(CollabRequestRepository.byId(collabId),
+                collabRequestRepository.appendUpdate(collabRequest), Collaboration.class)
+                .map(result -> result.getMatchedCount())
+                .filter(matched -> matched > 0)
+                // The request is stored from here on, so a failed lookup only costs the emails
+                .flatMap(matched -> findNotificationTarget(collabId)
+                        .doOnNext(collaboration -> ReactiveSideEffects.run(() -> {
+                            // Notify the collaboration owner
+                            notificationDigestScheduler.newCollabRequest(collaboration.getEmail(), collabRequest,
+                                    collaboration.getTitle(), collaboration.getId());
+                            // Send confirmation to the person requesting
+                            emailService.sendCollabRequestConfirmation(collabRequest.getRequesterEmail(),
+                                    collaboration.getTitle());
+                        }))
+                        .switchIfEmpty(Mono.fromRunnable(() -> log.warn(
+                                "Collaboration {} disappeared after a request was added, skipping notifications",
+                                collabId)))
+                        .thenReturn(new ResponseEntity<>("Collaboration request submitted successfully!",
+                                HttpStatus.OK)))
+                .defaultIfEmpty(new ResponseEntity<>("Collaboration not found", HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/getCollabRequests/{collabId}")
+    public Mono<ResponseEntity<?>> getCollabRequests(@PathVariable String collabId) {
+        Query query = Query.query(Criteria.where("_id").is(collabId));
+        query.fields().include("collabs");
+        return reactiveMongoTemplate.findOne(query, Collaboration.class)
+                .<ResponseEntity<?>>map(collaboration -> new ResponseEntity<>(collaboration.getCollabs(),
+                        HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>("Collaboration not found", HttpStatus.NOT_FOUND));
+    }
+
+    private Mono<Boolean> userExists(String id) {
+        return reactiveMongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), User.class);
+    }
+
+    // Shares the servlet path's summary cache; a miss is a blocking read, kept off the request thread
+    private Mono<PostingSummary> findNotificationTarget(String collabId) {
+        return Mono.fromCallable(() -> postingLookupService.findCollaboration(collabId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Listings leave out the embedded requests, which only the owner needs, and
+    // anything still waiting for delete cleanup
+    private Query collabListingQuery() {
+        Query query = new Query();
+        query.fields().exclude("collabs");
+        return cascadeWorker.excludeDeleted(query, "creatorId", true);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.reactive;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.service.MongoCursorPager;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link MongoCursorPager}: same keyset pages and
+ * cursor header, read without blocking a thread.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveCursorPager {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public <T, R> Mono<ResponseEntity<List<R>>> page(Query query, Class<T> type, String after, Integer limit,
+            Function<T, String> idOf, Function<T, R> mapper) {
+        int pageSize = MongoCursorPager.applyKeyset(query, after, limit);
+        return reactiveMongoTemplate.find(query, type).collectList().map(documents -> {
+            HttpHeaders headers = new HttpHeaders();
+            if (documents.size() > pageSize) {
+                documents = documents.subList(0, pageSize);
+                headers.set(MongoCursorPager.NEXT_CURSOR_HEADER, idOf.apply(documents.get(pageSize - 1)));
+            }
+            List<R> page = documents.stream().map(mapper).toList();
+            return new ResponseEntity<>(page, headers, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Streams every matching document; demand from the response writer is
+     * propagated to the Mongo cursor.
+     */
+    public <T> Flux<T> stream(Query query, Class<T> type) {
+        return reactiveMongoTemplate.find(query.with(Sort.by(Sort.Direction.ASC, "_id")), type);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs work that must not delay a reactive response, such as building and
+ * queueing notification emails, on the bounded elastic scheduler.
+ */
+final class ReactiveSideEffects {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveSideEffects.class);
+
+    private ReactiveSideEffects() {
+    }
+
+    static void run(Runnable work) {
+        Mono.fromRunnable(work)
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, error -> log.error("Reactive side effect failed", error));
+    }
+}
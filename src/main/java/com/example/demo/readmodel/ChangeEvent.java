@@ -0,0 +1,54 @@
+package com.example.demo.readmodel;
+
+import org.bson.Document;
+
+/**
+ * One write to a source collection, as delivered by a {@link ChangeFeedSource}.
+ */
+public final class ChangeEvent {
+
+    public enum Operation {
+        /** An insert, update or replace; the full document is attached. */
+        UPSERT,
+        DELETE
+    }
+
+    private final String collection;
+    private final Operation operation;
+    private final String documentId;
+    private final Document fullDocument;
+    private final String resumeToken;
+
+    public ChangeEvent(String collection, Operation operation, String documentId, Document fullDocument,
+            String resumeToken) {
+        this.collection = collection;
+        this.operation = operation;
+        this.documentId = documentId;
+        this.fullDocument = fullDocument;
+        this.resumeToken = resumeToken;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public Document getFullDocument() {
+        return fullDocument;
+    }
+
+    /**
+     * @return The token to resume the feed after this event, or {@code null} if
+     *         the source cannot resume.
+     */
+    public String getResumeToken() {
+        return resumeToken;
+    }
+}
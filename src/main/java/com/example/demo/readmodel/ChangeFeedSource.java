@@ -0,0 +1,35 @@
+package com.example.demo.readmodel;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An ordered feed of writes to a set of collections.
+ */
+public interface ChangeFeedSource {
+
+    /**
+     * Starts delivering events, in commit order, to the listener.
+     *
+     * @param collections The collections to follow.
+     * @param resumeToken The token of the last event already applied, or
+     *                    {@code null}.
+     * @param listener    Receives each event on the source's own thread.
+     * @return {@code true} if the feed resumed right after the token, so no
+     *         event was missed; {@code false} if it starts from now and the
+     *         consumer must rebuild its state.
+     */
+    boolean start(Set<String> collections, String resumeToken, Consumer<ChangeEvent> listener);
+
+    /**
+     * @return {@code true} if the feed can resume from any checkpoint, even
+     *         one saved before a crash; {@code false} if it can only resume
+     *         after a clean shutdown, when every event of the previous run
+     *         was applied.
+     */
+    default boolean resumesAfterCrash() {
+        return true;
+    }
+
+    void stop();
+}
@@ -0,0 +1,398 @@
+package com.example.demo.readmodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.config.ExecutionModeConfig;
+import com.example.demo.model.Application;
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.model.User;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Maintains precomputed dashboard views from the change feed of applications,
+ * collaborations, opportunities and users, so a dashboard read is one lookup
+ * by key.
+ *
+ * <ul>
+ * <li>{@code dashboard_views}, keyed by user ID: the user's applications and
+ * the collaborations they created.</li>
+ * <li>{@code opportunity_views}, keyed by opportunity ID: the applicant count
+ * and the latest applicants.</li>
+ * </ul>
+ *
+ * Events are applied in order on a single thread and every update is
+ * idempotent, so replaying the events after the last checkpoint is harmless.
+ * The views are rebuilt from the source collections instead when the feed
+ * cannot resume, when the queue was full and an event had to be dropped, and
+ * when an event still fails after {@code readmodel.retry-attempts}; a pending
+ * rebuild is recorded in the checkpoint so it also survives a restart.
+ */
+@Service
+public class DashboardProjector {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardProjector.class);
+
+    static final String USER_VIEWS = "dashboard_views";
+    static final String OPPORTUNITY_VIEWS = "opportunity_views";
+    private static final String CHECKPOINTS = "read_model_checkpoints";
+    private static final String CHECKPOINT_ID = "dashboard";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ChangeFeedSource changeFeedSource;
+
+    @Value("${readmodel.checkpoint-every:100}")
+    private int checkpointEvery;
+    @Value("${readmodel.latest-applicants:10}")
+    private int latestApplicants;
+    @Value("${readmodel.retry-attempts:5}")
+    private int retryAttempts;
+    @Value("${readmodel.retry-backoff-ms:1000}")
+    private long retryBackoffMillis;
+
+    private final BlockingQueue<ChangeEvent> events = new LinkedBlockingQueue<>(10_000);
+    private ExecutorService projector;
+    private volatile boolean running;
+    // Set when events were lost, so the views must be recomputed
+    private volatile boolean rebuildRequested;
+
+    private String applications;
+    private String collaborations;
+    private String opportunities;
+    private String users;
+
+    private String lastToken;
+    private int sinceCheckpoint;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(3)
+    public void start() {
+        applications = mongoTemplate.getCollectionName(Application.class);
+        collaborations = mongoTemplate.getCollectionName(Collaboration.class);
+        opportunities = mongoTemplate.getCollectionName(PostOpportunity.class);
+        users = mongoTemplate.getCollectionName(User.class);
+        mongoTemplate.indexOps(USER_VIEWS).ensureIndex(new Index("applications.id", Sort.Direction.ASC));
+        mongoTemplate.indexOps(USER_VIEWS).ensureIndex(new Index("collaborations.id", Sort.Direction.ASC));
+
+        Document checkpoint = mongoTemplate.findById(CHECKPOINT_ID, Document.class, CHECKPOINTS);
+        String resumeToken = checkpoint == null ? null : checkpoint.getString("resumeToken");
+        if (checkpoint != null && (checkpoint.getBoolean("rebuildRequired", false)
+                || !changeFeedSource.resumesAfterCrash() && !checkpoint.getBoolean("clean", false))) {
+            resumeToken = null;
+        }
+        // Stays unclean unless this run stops cleanly
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)),
+                new Update().set("clean", false).currentDate("updatedAt"), CHECKPOINTS);
+
+        boolean resumed = changeFeedSource.start(Set.of(applications, collaborations, opportunities, users),
+                resumeToken, this::enqueue);
+        rebuildRequested = !resumed;
+        running = true;
+        projector = Executors.newSingleThreadExecutor(ExecutionModeConfig.workerThreads("platform",
+                "readmodel-projector"));
+        projector.execute(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (projector == null) {
+            return;
+        }
+        changeFeedSource.stop();
+        running = false;
+        projector.shutdown();
+        if (!projector.awaitTermination(10, TimeUnit.SECONDS)) {
+            projector.shutdownNow();
+        }
+    }
+
+    /**
+     * @param userId The user ID.
+     * @return The user's dashboard: their applications and the collaborations
+     *         they created, with counts.
+     */
+    public Map<String, Object> findUserView(String userId) {
+        Document view = mongoTemplate.findById(userId, Document.class, USER_VIEWS);
+        List<Document> userApplications = view == null ? List.of() : view.getList("applications", Document.class,
+                List.of());
+        List<Document> userCollaborations = view == null ? List.of() : view.getList("collaborations",
+                Document.class, List.of());
+        long openCollaborations = userCollaborations.stream()
+                .filter(collaboration -> Boolean.TRUE.equals(collaboration.get("open")))
+                .count();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("userId", userId);
+        response.put("applicationCount", userApplications.size());
+        response.put("applications", userApplications);
+        response.put("collaborationCount", userCollaborations.size());
+        response.put("openCollaborationCount", openCollaborations);
+        response.put("collaborations", userCollaborations);
+        return response;
+    }
+
+    /**
+     * @param opportunityId The opportunity ID.
+     * @return The applicant count and the latest applicants, newest first.
+     */
+    public Map<String, Object> findOpportunityView(String opportunityId) {
+        Document view = mongoTemplate.findById(opportunityId, Document.class, OPPORTUNITY_VIEWS);
+        List<Document> latest = new ArrayList<>(view == null ? List.of()
+                : view.getList("latestApplicants", Document.class, List.of()));
+        Collections.reverse(latest);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("opportunityId", opportunityId);
+        response.put("applicantCount", view == null ? 0 : view.get("applicantCount", 0));
+        response.put("latestApplicants", latest);
+        return response;
+    }
+
+    // Runs on the feed's thread, which for the local source is the request thread, so it never blocks
+    private void enqueue(ChangeEvent event) {
+        if (!events.offer(event)) {
+            requestRebuild("Dashboard change queue is full, dropping events and rebuilding the views");
+        }
+    }
+
+    private void requestRebuild(String reason) {
+        if (!rebuildRequested) {
+            rebuildRequested = true;
+            log.warn(reason);
+        }
+    }
+
+    private void drainLoop() {
+        while (running || !events.isEmpty()) {
+            try {
+                if (rebuildRequested && running) {
+                    rebuildRequested = false;
+                    try {
+                        rebuild();
+                    } catch (RuntimeException e) {
+                        rebuildRequested = true;
+                        throw e;
+                    }
+                    saveCheckpoint(false);
+                    continue;
+                }
+                ChangeEvent event = events.poll(500, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+                if (!applyWithRetry(event)) {
+                    // Not checkpointed past; the rebuild recomputes what it would have changed
+                    requestRebuild("Giving up on a change to " + event.getCollection() + ", rebuilding the views");
+                    continue;
+                }
+                lastToken = event.getResumeToken();
+                if (++sinceCheckpoint >= checkpointEvery) {
+                    saveCheckpoint(false);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Failed to update dashboard views", e);
+                if (!pause()) {
+                    break;
+                }
+            }
+        }
+        try {
+            // Clean only if nothing was lost, so the next start knows whether it may resume
+            saveCheckpoint(!rebuildRequested && events.isEmpty());
+        } catch (RuntimeException e) {
+            log.error("Failed to save dashboard checkpoint on shutdown", e);
+        }
+    }
+
+    /**
+     * Applies an event, retrying with a pause while the failure persists.
+     *
+     * @return {@code false} if it still failed after the last attempt, or the
+     *         projector is stopping.
+     */
+    private boolean applyWithRetry(ChangeEvent event) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                apply(event);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= retryAttempts || !running) {
+                    log.error("Failed to apply change to {} after {} attempts", event.getCollection(), attempt, e);
+                    return false;
+                }
+                log.warn("Failed to apply change to {}, retrying: {}", event.getCollection(), e.getMessage());
+                if (!pause()) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(retryBackoffMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void apply(ChangeEvent event) {
+        String collection = event.getCollection();
+        boolean upsert = event.getOperation() == ChangeEvent.Operation.UPSERT;
+        if (collection.equals(applications)) {
+            if (upsert) {
+                applyApplication(event.getDocumentId(), event.getFullDocument());
+            } else {
+                removeApplication(event.getDocumentId());
+            }
+        } else if (collection.equals(collaborations)) {
+            removeCollaboration(event.getDocumentId());
+            if (upsert) {
+                addCollaboration(event.getDocumentId(), event.getFullDocument());
+            }
+        } else if (collection.equals(opportunities) && !upsert) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(event.getDocumentId())), OPPORTUNITY_VIEWS);
+        } else if (collection.equals(users) && !upsert) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(event.getDocumentId())), USER_VIEWS);
+        }
+    }
+
+    private void applyApplication(String applicationId, Document application) {
+        String userId = application.getString("userId");
+        String opportunityId = application.getString("opportunityId");
+        Document applicant = application.get("applicant", Document.class);
+        Object applicationDate = applicant == null ? null : applicant.get("applicationDate");
+
+        boolean isNew = true;
+        if (userId != null) {
+            Document entry = new Document("id", applicationId)
+                    .append("opportunityId", opportunityId)
+                    .append("applicationDate", applicationDate);
+            // Only the first delivery of an application changes the views
+            isNew = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(userId).and("applications.id").ne(applicationId)),
+                    new Update().push("applications", entry), USER_VIEWS).getModifiedCount() > 0
+                    || mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)),
+                            new Update().setOnInsert("applications", List.of(entry)), USER_VIEWS)
+                            .getUpsertedId() != null;
+        }
+        if (isNew && opportunityId != null) {
+            Document latest = new Document("applicationId", applicationId);
+            if (applicant != null) {
+                latest.putAll(applicant);
+            }
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(opportunityId)),
+                    new Update().inc("applicantCount", 1)
+                            .push("latestApplicants").slice(-latestApplicants).each(latest),
+                    OPPORTUNITY_VIEWS);
+        }
+    }
+
+    private void removeApplication(String applicationId) {
+        Query owner = Query.query(Criteria.where("applications.id").is(applicationId));
+        owner.fields().elemMatch("applications", Criteria.where("id").is(applicationId));
+        Document view = mongoTemplate.findOne(owner, Document.class, USER_VIEWS);
+        if (view == null) {
+            return;
+        }
+        String opportunityId = view.getList("applications", Document.class).get(0).getString("opportunityId");
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(view.get("_id"))),
+                new Update().pull("applications", new Document("id", applicationId)), USER_VIEWS);
+        if (opportunityId != null) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(opportunityId)),
+                    new Update().inc("applicantCount", -1)
+                            .pull("latestApplicants", new Document("applicationId", applicationId)),
+                    OPPORTUNITY_VIEWS);
+        }
+    }
+
+    private void addCollaboration(String collabId, Document collaboration) {
+        String creatorId = collaboration.getString("creatorId");
+        if (creatorId == null) {
+            return;
+        }
+        Document entry = new Document("id", collabId)
+                .append("title", collaboration.get("title"))
+                .append("open", collaboration.get("isOpen"));
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(creatorId)),
+                new Update().push("collaborations", entry), USER_VIEWS);
+    }
+
+    private void removeCollaboration(String collabId) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("collaborations.id").is(collabId)),
+                new Update().pull("collaborations", new Document("id", collabId)), USER_VIEWS);
+    }
+
+    /**
+     * Recomputes both views from the source collections. Events that arrive
+     * meanwhile wait in the queue and are applied afterwards; if the queue
+     * overflows during the rebuild, another one follows.
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        mongoTemplate.remove(new Query(), USER_VIEWS);
+        mongoTemplate.remove(new Query(), OPPORTUNITY_VIEWS);
+
+        Query applicationQuery = new Query();
+        applicationQuery.fields().include("userId", "opportunityId", "applicant");
+        try (Stream<Document> stream = mongoTemplate.stream(applicationQuery, Document.class, applications)) {
+            stream.forEach(application -> applyApplication(String.valueOf(application.get("_id")), application));
+        }
+        Query collaborationQuery = new Query();
+        collaborationQuery.fields().include("creatorId", "title", "isOpen");
+        try (Stream<Document> stream = mongoTemplate.stream(collaborationQuery, Document.class, collaborations)) {
+            stream.forEach(collaboration -> addCollaboration(String.valueOf(collaboration.get("_id")),
+                    collaboration));
+        }
+        log.info("Rebuilt dashboard views in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @param clean Whether every event of this run was applied, which is
+     *              what lets a feed that cannot resume after a crash resume.
+     */
+    private void saveCheckpoint(boolean clean) {
+        sinceCheckpoint = 0;
+        Update update = new Update().set("clean", clean).set("rebuildRequired", rebuildRequested)
+                .currentDate("updatedAt");
+        if (lastToken != null) {
+            update.set("resumeToken", lastToken);
+        }
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(CHECKPOINT_ID)), update, CHECKPOINTS);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.readmodel;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+/**
+ * {@link ChangeFeedSource} for a single node without a replica set. It turns
+ * this application's own entity saves and deletes into events, so writes made
+ * by other processes or by raw update operators are not seen.
+ *
+ * Only correct when exactly one node runs the application: with several, each
+ * node sees only its own writes, so the views miss or misorder the others'
+ * changes. Use {@code readmodel.source=mongo} for more than one node.
+ *
+ * A single node makes no writes while it is down, so after a clean shutdown,
+ * when the projector applied every queued event and saved its checkpoint,
+ * the feed resumes without a rebuild. After a crash it cannot tell what was
+ * lost and the views are rebuilt.
+ */
+public class LocalChangeFeedSource extends AbstractMongoEventListener<Object> implements ChangeFeedSource {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile Set<String> collections = Set.of();
+    private volatile Consumer<ChangeEvent> listener;
+
+    @Override
+    public boolean start(Set<String> collections, String resumeToken, Consumer<ChangeEvent> listener) {
+        this.collections = collections;
+        this.listener = listener;
+        return resumeToken != null;
+    }
+
+    @Override
+    public boolean resumesAfterCrash() {
+        return false;
+    }
+
+    @Override
+    public void stop() {
+        listener = null;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Document document = event.getDocument();
+        if (document != null) {
+            publish(event.getCollectionName(), ChangeEvent.Operation.UPSERT, document.get("_id"), document);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Document filter = event.getDocument();
+        Object id = filter == null ? null : filter.get("_id");
+        // Only deletes by id, or by a list of ids, identify what was removed
+        if (id instanceof Document condition) {
+            if (condition.get("$in") instanceof Collection<?> ids) {
+                for (Object each : ids) {
+                    publish(event.getCollectionName(), ChangeEvent.Operation.DELETE, each, null);
+                }
+            }
+        } else if (id != null) {
+            publish(event.getCollectionName(), ChangeEvent.Operation.DELETE, id, null);
+        }
+    }
+
+    private void publish(String collection, ChangeEvent.Operation operation, Object id, Document document) {
+        Consumer<ChangeEvent> current = listener;
+        if (current == null || id == null || !collections.contains(collection)) {
+            return;
+        }
+        current.accept(new ChangeEvent(collection, operation, id.toString(), document,
+                String.valueOf(sequence.incrementAndGet())));
+    }
+}
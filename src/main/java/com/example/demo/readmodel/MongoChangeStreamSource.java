@@ -0,0 +1,137 @@
+package com.example.demo.readmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+
+/**
+ * {@link ChangeFeedSource} backed by a database-level Mongo change stream.
+ * Requires a replica set; resumes from the stored token as long as it is still
+ * in the oplog.
+ */
+public class MongoChangeStreamSource implements ChangeFeedSource {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoChangeStreamSource.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean running;
+    private Thread reader;
+
+    public MongoChangeStreamSource(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean start(Set<String> collections, String resumeToken, Consumer<ChangeEvent> listener) {
+        boolean resumed = resumeToken != null;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+        try {
+            cursor = open(collections, resumeToken);
+        } catch (MongoException | IllegalArgumentException e) {
+            // The token has fallen off the oplog or was written by another source
+            log.warn("Cannot resume change stream from checkpoint, starting from now: {}", e.getMessage());
+            cursor = open(collections, null);
+            resumed = false;
+        }
+        running = true;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor = cursor;
+        reader = new Thread(() -> readLoop(openCursor, listener), "readmodel-change-stream");
+        reader.setDaemon(true);
+        reader.start();
+        return resumed;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (reader != null) {
+            try {
+                reader.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(Set<String> collections,
+            String resumeToken) {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", new ArrayList<>(collections)))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(BsonDocument.parse(resumeToken));
+        }
+        return stream.cursor();
+    }
+
+    private void readLoop(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor,
+            Consumer<ChangeEvent> listener) {
+        try (cursor) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null) {
+                    ChangeEvent event = toEvent(change);
+                    if (event != null) {
+                        listener.accept(event);
+                    }
+                }
+            }
+        } catch (MongoException e) {
+            if (running) {
+                log.error("Change stream failed, read models stop updating until restart", e);
+            }
+        }
+    }
+
+    private static ChangeEvent toEvent(ChangeStreamDocument<Document> change) {
+        if (change.getNamespace() == null || change.getDocumentKey() == null) {
+            return null;
+        }
+        String collection = change.getNamespace().getCollectionName();
+        String id = idString(change.getDocumentKey().get("_id"));
+        String token = change.getResumeToken().toJson();
+        switch (change.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                // Null when the document was deleted before the lookup; its delete event follows
+                return change.getFullDocument() == null ? null
+                        : new ChangeEvent(collection, ChangeEvent.Operation.UPSERT, id, change.getFullDocument(),
+                                token);
+            case DELETE:
+                return new ChangeEvent(collection, ChangeEvent.Operation.DELETE, id, null, token);
+            default:
+                log.warn("Ignoring {} change on {}", change.getOperationType(), collection);
+                return null;
+        }
+    }
+
+    private static String idString(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        if (id.isString()) {
+            return id.asString().getValue();
+        }
+        return id.toString();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import com.example.demo.model.Application;
+
+public interface ApplicationRepository extends MongoRepository<Application, String> {
+
+    List<Application> findByUserId(String userId);
+}
@@ -0,0 +1,95 @@
+package com.example.demo.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.model.CollabRequest;
+import com.example.demo.model.Collaboration;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Atomic, server-side updates to the requests embedded in a
+ * {@link Collaboration}.
+ */
+@Repository
+@Timed("repository.operations")
+public class CollabRequestRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * When positive, only the most recent requests up to this many are kept on
+     * each collaboration.
+     */
+    @Value("${collab.requests.max-per-collab:0}")
+    private int maxRequestsPerCollab;
+
+    /**
+     * Appends a request to a collaboration with a single update, without
+     * reading or rewriting the rest of the document.
+     *
+     * @param collabId The collaboration ID.
+     * @param request  The request to append.
+     * @return The number of matched collaborations, 0 if it does not exist.
+     */
+    public long append(String collabId, CollabRequest request) {
+        return mongoTemplate.updateFirst(byId(collabId), appendUpdate(request), Collaboration.class)
+                .getMatchedCount();
+    }
+
+    /**
+     * $push fails on an explicit null, which older documents may hold, and
+     * replacing the null in a second step races with concurrent appends. This
+     * pipeline update treats a missing or null list as empty in the same
+     * atomic write.
+     *
+     * @param request The request to append.
+     * @return The update, capped when a per-collab maximum is set.
+     */
+    public UpdateDefinition appendUpdate(CollabRequest request) {
+        Object stored = mongoTemplate.getConverter().convertToMongoType(request);
+        // $literal so values starting with '$' are not read as field paths
+        Object appended = new Document("$concatArrays", List.of(
+                new Document("$ifNull", Arrays.asList("$collabs", List.of())),
+                new Document("$literal", List.of(stored))));
+        Object value = maxRequestsPerCollab > 0
+                ? new Document("$slice", List.of(appended, -maxRequestsPerCollab))
+                : appended;
+        AggregationOperation set = context -> new Document("$set", new Document("collabs", value));
+        return AggregationUpdate.from(List.of(set));
+    }
+
+    /**
+     * @param collabId The collaboration ID.
+     * @return The query for {@link #appendUpdate(CollabRequest)}.
+     */
+    public static Query byId(String collabId) {
+        return Query.query(Criteria.where("_id").is(collabId));
+    }
+
+    /**
+     * Loads only the fields of a collaboration needed to notify its owner.
+     *
+     * @param collabId The collaboration ID.
+     * @return The collaboration with only id, title and email populated, or
+     *         {@code null} if it does not exist.
+     */
+    public Collaboration findNotificationTarget(String collabId) {
+        Query query = byId(collabId);
+        query.fields().include("title", "email");
+        return mongoTemplate.findOne(query, Collaboration.class);
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory inverted index ranked with BM25.
+ *
+ * Documents get increasing internal numbers as they are added, so each term's
+ * postings list is append-only and sorted, and is stored as variable-length
+ * encoded (doc gap, term frequency) pairs in a single byte array. Replacing a
+ * document marks its old number deleted and appends it again; deleted entries
+ * are skipped when scoring and dropped when the index is rebuilt. Each term
+ * also keeps a count of the live documents containing it, so deletions do not
+ * skew its inverse document frequency.
+ */
+public final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Title matches count this many times towards the term frequency
+    private static final int TITLE_WEIGHT = 2;
+    private static final int INITIAL_QUEUE_CAPACITY = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docNumbers = new HashMap<>();
+    private final List<String> externalIds = new ArrayList<>();
+    // The postings lists each live document appears in, to keep their live counts on removal
+    private final List<Postings[]> docTerms = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private int[] docLengths = new int[64];
+    private long totalLength;
+    private int liveDocs;
+
+    /**
+     * Adds a document, replacing any previous version with the same ID.
+     *
+     * @param id    The document ID.
+     * @param title The title, weighted above the other text.
+     * @param body  The remaining searchable text.
+     */
+    public void put(String id, String title, String body) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = 0;
+        for (String token : Tokenizer.tokenize(title)) {
+            termFrequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String token : Tokenizer.tokenize(body)) {
+            termFrequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int doc = externalIds.size();
+            externalIds.add(id);
+            docNumbers.put(id, doc);
+            if (doc == docLengths.length) {
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+            }
+            docLengths[doc] = length;
+            totalLength += length;
+            liveDocs++;
+            Postings[] terms = new Postings[termFrequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                Postings list = postings.computeIfAbsent(entry.getKey(), term -> new Postings());
+                list.add(doc, entry.getValue());
+                terms[i++] = list;
+            }
+            docTerms.add(terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id The document ID.
+     */
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the live documents matching any query term.
+     *
+     * @param query   The free-text query.
+     * @param maxHits The maximum number of hits to return.
+     * @return The best hits, highest score first.
+     */
+    public List<Hit> search(String query, int maxHits) {
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty() || maxHits <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float averageLength = (float) totalLength / liveDocs;
+            Map<Integer, Float> scores = new HashMap<>();
+            for (String term : new LinkedHashSet<>(terms)) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                if (list.liveDocFreq == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - list.liveDocFreq + 0.5) / (list.liveDocFreq + 0.5));
+                list.forEach((doc, tf) -> {
+                    if (deleted.get(doc)) {
+                        return;
+                    }
+                    float norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+                    scores.merge(doc, idf * tf * (K1 + 1) / (tf + norm), Float::sum);
+                });
+            }
+
+            // Grows with the hits actually kept rather than with the requested depth
+            PriorityQueue<Hit> top = new PriorityQueue<>(INITIAL_QUEUE_CAPACITY, Hit.BY_SCORE);
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                top.add(new Hit(externalIds.get(entry.getKey()), entry.getValue()));
+                if (top.size() > maxHits) {
+                    top.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(Hit.BY_SCORE.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(String id) {
+        Integer doc = docNumbers.remove(id);
+        if (doc != null) {
+            deleted.set(doc);
+            totalLength -= docLengths[doc];
+            liveDocs--;
+            for (Postings list : docTerms.get(doc)) {
+                list.liveDocFreq--;
+            }
+            docTerms.set(doc, null);
+        }
+    }
+
+    /**
+     * A ranked match.
+     */
+    public static final class Hit {
+
+        static final Comparator<Hit> BY_SCORE = (a, b) -> Float.compare(a.score, b.score);
+
+        private final String id;
+        private final float score;
+
+        Hit(String id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private interface PostingConsumer {
+        void accept(int doc, int termFrequency);
+    }
+
+    /**
+     * One term's postings as variable-length encoded (doc gap, tf) pairs.
+     */
+    private static final class Postings {
+
+        private byte[] data = new byte[8];
+        private int length;
+        private int lastDoc = -1;
+        // Documents in this list that have not been deleted
+        private int liveDocFreq;
+
+        void add(int doc, int termFrequency) {
+            writeVarInt(doc - lastDoc);
+            writeVarInt(termFrequency);
+            lastDoc = doc;
+            liveDocFreq++;
+        }
+
+        void forEach(PostingConsumer consumer) {
+            int position = 0;
+            int doc = -1;
+            while (position < length) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                int termFrequency = 0;
+                shift = 0;
+                do {
+                    b = data[position++];
+                    termFrequency |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += gap;
+                consumer.accept(doc, termFrequency);
+            }
+        }
+
+        private void writeVarInt(int value) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+}
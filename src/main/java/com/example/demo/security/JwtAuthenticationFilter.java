@@ -0,0 +1,57 @@
+package com.example.demo.security;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates requests carrying a valid {@code Authorization: Bearer} token.
+ * Requests without a valid token continue unauthenticated, and the
+ * authorization rules decide whether they may proceed.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenVerifier tokenVerifier;
+
+    public JwtAuthenticationFilter(JwtTokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = bearerToken(request);
+        if (token != null) {
+            String subject = tokenVerifier.verify(token);
+            if (subject != null) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(subject, null, Collections.emptyList()));
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * @param request The request.
+     * @return The bearer token, or {@code null} if the request has none.
+     */
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String token = header.substring(BEARER_PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
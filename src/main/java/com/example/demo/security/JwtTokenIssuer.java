@@ -0,0 +1,49 @@
+package com.example.demo.security;
+
+import java.util.Date;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.utils.JwtUtil;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Issues the bearer tokens returned on login and registration, signed with
+ * the same key {@link JwtTokenVerifier} checks them with.
+ *
+ * While no {@code jwt.secret} is configured, tokens still come from
+ * {@link JwtUtil} as before; they are not verified until a secret is set.
+ */
+@Component
+public class JwtTokenIssuer {
+
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Value("${jwt.ttl-ms:36000000}")
+    private long ttlMillis;
+
+    /**
+     * @param subject The user the token is for, their email.
+     * @return A compact signed JWT.
+     */
+    public String issue(String subject) {
+        SecretKey key = jwtTokenVerifier.signingKey();
+        if (key == null) {
+            return JwtUtil.generateToken(subject);
+        }
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
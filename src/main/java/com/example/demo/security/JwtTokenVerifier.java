@@ -0,0 +1,259 @@
+package com.example.demo.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Verifies bearer tokens without touching the database. A verified token's
+ * subject is cached under a hash of the token until the token expires, so
+ * repeat requests skip the signature check. Expired entries are purged in the
+ * background; while the cache is full, newly verified tokens are simply not
+ * cached.
+ *
+ * Revoked tokens are remembered by hash until they would have expired anyway.
+ * Each revocation is also written to the {@code revoked_tokens} collection and
+ * every node pulls new ones in every {@code jwt.revocation-sync-ms}, so a
+ * token revoked on one node stops working on the others within that interval
+ * rather than at once.
+ *
+ * The key is {@code jwt.secret}, which {@link JwtTokenIssuer} also signs
+ * with, so issued tokens always verify. Without a usable secret verification
+ * is off and every token is rejected; that is only allowed while
+ * {@code security.jwt.enforce} is off.
+ */
+@Component
+public class JwtTokenVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenVerifier.class);
+
+    /** Upper bound on tokens kept without an exp claim. */
+    private static final long DEFAULT_CACHE_MILLIS = 15 * 60 * 1000L;
+    private static final String REVOKED_COLLECTION = "revoked_tokens";
+    /** Re-read window covering clock differences between nodes. */
+    private static final long SYNC_OVERLAP_MILLIS = 30_000L;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${jwt.secret:}")
+    private String secret;
+    @Value("${security.jwt.enforce:false}")
+    private boolean enforce;
+    @Value("${jwt.verified-cache.max-size:50000}")
+    private int maxCachedTokens;
+
+    private SecretKey key;
+    private JwtParser parser;
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile long revocationsSyncedAt;
+
+    @PostConstruct
+    public void init() {
+        String problem = secretProblem();
+        if (problem != null) {
+            if (enforce) {
+                throw new IllegalStateException(problem + "; it is required while security.jwt.enforce is on");
+            }
+            log.warn("{}; bearer tokens are not verified until it is", problem);
+            return;
+        }
+        key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+        try {
+            mongoTemplate.indexOps(REVOKED_COLLECTION)
+                    .ensureIndex(new Index("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+            mongoTemplate.indexOps(REVOKED_COLLECTION).ensureIndex(new Index("revokedAt", Sort.Direction.ASC));
+        } catch (RuntimeException e) {
+            log.warn("Could not create revoked token indexes: {}", e.getMessage());
+        }
+        syncRevocations();
+    }
+
+    private String secretProblem() {
+        if (secret == null || secret.isBlank()) {
+            return "jwt.secret is not set";
+        }
+        int length = secret.getBytes(StandardCharsets.UTF_8).length;
+        if (length < 32) {
+            return "jwt.secret must be at least 32 bytes long for HMAC-SHA256, got " + length;
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether a signing key is configured and tokens are verified.
+     */
+    public boolean isEnabled() {
+        return parser != null;
+    }
+
+    /**
+     * @return The key tokens are signed and verified with, or {@code null}
+     *         while verification is off.
+     */
+    SecretKey signingKey() {
+        return key;
+    }
+
+    /**
+     * Returns the subject of a valid, unrevoked token.
+     *
+     * @param token The compact JWT.
+     * @return The token subject, or {@code null} if the token is invalid,
+     *         expired or revoked, or while verification is off.
+     */
+    public String verify(String token) {
+        if (parser == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        String hash = hash(token);
+        if (revoked.containsKey(hash)) {
+            return null;
+        }
+        VerifiedToken cached = verified.get(hash);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return cached.subject;
+            }
+            verified.remove(hash, cached);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? expiration.getTime() : now + DEFAULT_CACHE_MILLIS;
+        // Full until the next purge; the token is still valid, just not cached
+        if (verified.size() < maxCachedTokens) {
+            verified.put(hash, new VerifiedToken(claims.getSubject(), expiresAt));
+        }
+        return claims.getSubject();
+    }
+
+    /**
+     * Revokes a token until its expiry, on this node at once and on the others
+     * after their next sync. Invalid tokens are ignored.
+     *
+     * @param token The compact JWT.
+     */
+    public void revoke(String token) {
+        if (parser == null) {
+            return;
+        }
+        String hash = hash(token);
+        VerifiedToken cached = verified.remove(hash);
+        long expiresAt;
+        if (cached != null) {
+            expiresAt = cached.expiresAt;
+        } else {
+            try {
+                Date expiration = parser.parseClaimsJws(token).getBody().getExpiration();
+                expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+            } catch (JwtException | IllegalArgumentException e) {
+                return;
+            }
+        }
+        revoked.put(hash, expiresAt);
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(hash)),
+                    new Update().set("expiresAt", new Date(expiresAt)).set("revokedAt", new Date()),
+                    REVOKED_COLLECTION);
+        } catch (RuntimeException e) {
+            log.warn("Could not share a token revocation, it only applies on this node: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pulls revocations recorded by other nodes since the last sync.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-sync-ms:5000}")
+    public void syncRevocations() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            Query recent = Query.query(Criteria.where("revokedAt")
+                    .gte(new Date(Math.max(0, revocationsSyncedAt - SYNC_OVERLAP_MILLIS))));
+            recent.fields().include("expiresAt");
+            for (Document revocation : mongoTemplate.find(recent, Document.class, REVOKED_COLLECTION)) {
+                String hash = revocation.getString("_id");
+                Date expiresAt = revocation.getDate("expiresAt");
+                revoked.put(hash, expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
+                verified.remove(hash);
+            }
+            revocationsSyncedAt = startedAt;
+        } catch (RuntimeException e) {
+            log.warn("Could not sync token revocations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops cached and revoked entries for tokens that have expired.
+     */
+    @Scheduled(fixedDelayString = "${jwt.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(token -> token.expiresAt <= now);
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    public int getCachedTokenCount() {
+        return verified.size();
+    }
+
+    public int getRevokedTokenCount() {
+        return revoked.size();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final String subject;
+        private final long expiresAt;
+
+        private VerifiedToken(String subject, long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.BulkApplyResult;
+import com.example.demo.model.Applicant;
+import com.example.demo.model.Application;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.repository.ApplicationRepository;
+import com.mongodb.bulk.BulkWriteError;
+
+/**
+ * Reads and writes opportunity applications in the {@code applications}
+ * collection.
+ */
+@Service
+public class ApplicationService {
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ContentVersions contentVersions;
+
+    /**
+     * Stores a new application with a single-document insert.
+     *
+     * @param opportunityId The ID of the opportunity applied to.
+     * @param applicant     The applicant details.
+     * @return The stored application.
+     */
+    public Application submit(String opportunityId, Applicant applicant) {
+        Application application = applicationRepository.insert(new Application(opportunityId, applicant));
+        contentVersions.bump(Application.class);
+        return application;
+    }
+
+    /**
+     * Stores many applications to one opportunity with a single unordered
+     * bulk insert. Entries without an email are rejected up front, and a
+     * failed insert does not stop the others.
+     *
+     * @param opportunityId The ID of the opportunity applied to.
+     * @param applicants    The applicants, in request order.
+     * @return One result per applicant, in the same order.
+     */
+    public List<BulkApplyResult> submitAll(String opportunityId, List<Applicant> applicants) {
+        BulkApplyResult[] results = new BulkApplyResult[applicants.size()];
+        List<Application> batch = new ArrayList<>(applicants.size());
+        // Position in the batch -> position in the request
+        List<Integer> requestIndexes = new ArrayList<>(applicants.size());
+        for (int i = 0; i < applicants.size(); i++) {
+            Applicant applicant = applicants.get(i);
+            if (applicant == null || applicant.getEmail() == null || applicant.getEmail().isBlank()) {
+                results[i] = BulkApplyResult.failed(i, applicant == null ? null : applicant.getEmail(),
+                        "Email is required");
+                continue;
+            }
+            Application application = new Application(opportunityId, applicant);
+            // Ids are assigned here so the results can report them whatever the outcome of the batch
+            application.setId(new ObjectId().toHexString());
+            batch.add(application);
+            requestIndexes.add(i);
+        }
+        if (batch.isEmpty()) {
+            return List.of(results);
+        }
+
+        Map<Integer, String> errors = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Application.class).insert(batch).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        }
+        if (errors.size() < batch.size()) {
+            contentVersions.bump(Application.class);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            int index = requestIndexes.get(i);
+            Application application = batch.get(i);
+            String error = errors.get(i);
+            results[index] = error == null
+                    ? BulkApplyResult.submitted(index, application.getApplicant().getEmail(), application.getId())
+                    : BulkApplyResult.failed(index, application.getApplicant().getEmail(), error);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Returns every application made by a user.
+     *
+     * @param userId The applicant's user ID.
+     * @return The user's applications.
+     */
+    public List<Application> findByUser(String userId) {
+        return applicationRepository.findByUserId(userId);
+    }
+
+    /**
+     * Joins a user's applications with their opportunities into the rows
+     * {@code getMyApplications} returns, fetching every opportunity in one
+     * by-ID lookup. Applications whose opportunity is gone are left out.
+     *
+     * @param applications     The user's applications.
+     * @param findOpportunities Looks up opportunities by ID, e.g. the
+     *                          repository's {@code findAllById}.
+     * @return One row per application, in application order.
+     */
+    public static List<Map<String, Object>> toDetails(List<Application> applications,
+            Function<Set<String>, Iterable<PostOpportunity>> findOpportunities) {
+        List<Map<String, Object>> details = new ArrayList<>(applications.size());
+        if (applications.isEmpty()) {
+            return details;
+        }
+        Set<String> opportunityIds = new LinkedHashSet<>();
+        for (Application application : applications) {
+            opportunityIds.add(application.getOpportunityId());
+        }
+        Map<String, PostOpportunity> opportunities = new HashMap<>();
+        for (PostOpportunity opportunity : findOpportunities.apply(opportunityIds)) {
+            opportunities.put(opportunity.getId(), opportunity);
+        }
+
+        for (Application application : applications) {
+            PostOpportunity opportunity = opportunities.get(application.getOpportunityId());
+            if (opportunity == null) {
+                continue;
+            }
+            Applicant applicant = application.getApplicant();
+            Map<String, Object> applicationDetails = new HashMap<>();
+            applicationDetails.put("opportunity", opportunity);
+            applicationDetails.put("_id", application.getId());
+            applicationDetails.put("applicationDate", applicant.getApplicationDate());
+            applicationDetails.put("resumeUrl", applicant.getResumeUrl());
+            applicationDetails.put("name", applicant.getName());
+            applicationDetails.put("email", applicant.getEmail());
+            details.add(applicationDetails);
+        }
+        return details;
+    }
+
+    /**
+     * Builds the query for the applications to one opportunity, for use with
+     * {@link MongoCursorPager}.
+     *
+     * @param opportunityId The opportunity ID.
+     * @return The query.
+     */
+    public Query applicationsForOpportunity(String opportunityId) {
+        return Query.query(Criteria.where("opportunityId").is(opportunityId));
+    }
+
+    /**
+     * Loads only the fields of an opportunity needed to notify its owner.
+     *
+     * @param opportunityId The opportunity ID.
+     * @return The opportunity with only id, title and email populated, or
+     *         {@code null} if it does not exist.
+     */
+    public PostOpportunity findNotificationTarget(String opportunityId) {
+        Query query = Query.query(Criteria.where("_id").is(opportunityId));
+        query.fields().include("title", "email");
+        return mongoTemplate.findOne(query, PostOpportunity.class);
+    }
+
+    /**
+     * Ensures the indexes behind the per-opportunity keyset pages and the
+     * per-user lookup exist.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Application.class);
+        indexOps.ensureIndex(new Index().on("opportunityId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        indexOps.ensureIndex(new Index("userId", Sort.Direction.ASC));
+    }
+}
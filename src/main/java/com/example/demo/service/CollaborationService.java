@@ -0,0 +1,46 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.Collaboration;
+
+/**
+ * Queries over collaborations by their creator, which replace the copies that
+ * used to be embedded in each {@code User}.
+ */
+@Service
+public class CollaborationService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Builds the query for the collaborations created by one user, for use with
+     * {@link MongoCursorPager}.
+     *
+     * @param creatorId The creator's user ID.
+     * @return The query.
+     */
+    public Query collaborationsByCreator(String creatorId) {
+        return Query.query(Criteria.where("creatorId").is(creatorId));
+    }
+
+    /**
+     * Ensures the index behind the per-creator keyset pages exists.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(Collaboration.class)
+                .ensureIndex(new Index().on("creatorId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * A modification counter per collection, used to version listing responses.
+ * Write paths call {@link #bump(String)} after every write that changes what a
+ * listing returns; reads take the version from memory, so checking whether a
+ * client's copy is current costs no database read.
+ *
+ * The counters are kept in the {@code content_versions} collection so every
+ * node hands out the same versions. A node learns of its own writes at once
+ * and of other nodes' writes within {@code content-versions.refresh-ms}.
+ *
+ * If the shared counter cannot be advanced, this node's version for the
+ * collection no longer means the same as other nodes' and is marked
+ * {@link #isShared unshared} until the next refresh has moved the shared
+ * counter past it.
+ */
+@Service
+public class ContentVersions {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentVersions.class);
+    private static final String COLLECTION = "content_versions";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    /** Collections whose shared counter missed a change, with the local version at the time. */
+    private final ConcurrentHashMap<String, Long> unshared = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * @param collection The collection name.
+     * @return The collection's current version.
+     */
+    public long current(String collection) {
+        return counter(collection).get();
+    }
+
+    /**
+     * @param collection The collection name.
+     * @return Whether the collection's version matches the shared counter, so
+     *         it may be handed to clients and used as a cache key. Callers must
+     *         check it after {@link #current}.
+     */
+    public boolean isShared(String collection) {
+        return !unshared.containsKey(collection);
+    }
+
+    /**
+     * Records that a collection changed. Must be called after the write, so a
+     * response built from the old data never carries the new version.
+     *
+     * @param collection The collection name.
+     */
+    public void bump(String collection) {
+        try {
+            Document counter = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(collection)),
+                    new Update().inc("version", 1L), FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, COLLECTION);
+            advance(collection, counter.get("version", Number.class).longValue());
+        } catch (RuntimeException e) {
+            // Still invalidate this node's copies, but other nodes may hand out the same version for other data
+            log.warn("Could not record a change to {}: {}", collection, e.getMessage());
+            unshared.put(collection, counter(collection).incrementAndGet());
+        }
+    }
+
+    public void bump(Class<?> type) {
+        bump(mongoTemplate.getCollectionName(type));
+    }
+
+    /**
+     * Picks up versions advanced by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${content-versions.refresh-ms:1000}")
+    public void refresh() {
+        unshared.forEach(this::reshare);
+        try {
+            for (Document counter : mongoTemplate.findAll(Document.class, COLLECTION)) {
+                advance(counter.getString("_id"), counter.get("version", Number.class).longValue());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh content versions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Records the missed change: raises the shared counter to this node's
+     * version and increments it, so the result is new to every node.
+     */
+    private void reshare(String collection, long localVersion) {
+        long version = Math.max(localVersion, current(collection));
+        Query query = Query.query(Criteria.where("_id").is(collection));
+        try {
+            mongoTemplate.upsert(query, new Update().max("version", version), COLLECTION);
+            Document counter = mongoTemplate.findAndModify(query, new Update().inc("version", 1L),
+                    FindAndModifyOptions.options().returnNew(true), Document.class, COLLECTION);
+            advance(collection, counter.get("version", Number.class).longValue());
+            // Only if no later failure has marked it again
+            unshared.remove(collection, localVersion);
+        } catch (RuntimeException e) {
+            log.warn("Could not share the version of {}: {}", collection, e.getMessage());
+        }
+    }
+
+    private void advance(String collection, long version) {
+        counter(collection).accumulateAndGet(version, Math::max);
+    }
+
+    private AtomicLong counter(String collection) {
+        return versions.computeIfAbsent(collection, c -> new AtomicLong());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.Applicant;
+import com.example.demo.model.Application;
+import com.example.demo.model.PostOpportunity;
+
+/**
+ * One-off job that moves applicants still embedded in {@link PostOpportunity}
+ * documents into the {@code applications} collection. Opportunities are
+ * streamed and processed in batches; migrated applications get deterministic
+ * IDs so an interrupted run can simply be repeated.
+ *
+ * An opportunity's embedded array is only unset if it still has the length
+ * that was copied. One that grew in the meantime, e.g. through an old node
+ * during a rolling deploy, keeps its array and is migrated again on the next
+ * pass; the deterministic IDs make the repeated copies overwrites.
+ */
+@Component
+public class EmbeddedApplicantMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedApplicantMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Value("${applications.migration.enabled:true}")
+    private boolean enabled;
+    @Value("${applications.migration.batch-size:100}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        long applications = 0;
+        long previouslySkipped = Long.MAX_VALUE;
+        while (true) {
+            long[] counts = migratePass();
+            applications += counts[0];
+            long skipped = counts[1];
+            if (skipped == 0) {
+                break;
+            }
+            // Passes are repeated only while they make progress
+            if (skipped >= previouslySkipped) {
+                log.warn("{} opportunities kept changing during the applicant migration, retrying on next start",
+                        skipped);
+                break;
+            }
+            previouslySkipped = skipped;
+        }
+        if (applications > 0) {
+            contentVersions.bump(Application.class);
+            log.info("Migrated {} embedded applicants", applications);
+        }
+    }
+
+    /**
+     * @return The applications copied and the opportunities whose array
+     *         changed before it could be unset.
+     */
+    private long[] migratePass() {
+        Query query = Query.query(Criteria.where("applicants.0").exists(true));
+        query.fields().include("applicants");
+        query.cursorBatchSize(batchSize);
+
+        long[] counts = new long[2];
+        List<PostOpportunity> batch = new ArrayList<>(batchSize);
+        try (Stream<PostOpportunity> stream = mongoTemplate.stream(query, PostOpportunity.class)) {
+            for (PostOpportunity opportunity : (Iterable<PostOpportunity>) stream::iterator) {
+                batch.add(opportunity);
+                if (batch.size() == batchSize) {
+                    migrateBatch(batch, counts);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            migrateBatch(batch, counts);
+        }
+        return counts;
+    }
+
+    private void migrateBatch(List<PostOpportunity> batch, long[] counts) {
+        BulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Application.class);
+        BulkOperations unsets = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PostOpportunity.class);
+        for (PostOpportunity opportunity : batch) {
+            List<Applicant> applicants = opportunity.getApplicants();
+            for (int i = 0; i < applicants.size(); i++) {
+                Application application = new Application(opportunity.getId(), applicants.get(i));
+                application.setId(migratedId(opportunity.getId(), i));
+                inserts.replaceOne(Query.query(Criteria.where("_id").is(application.getId())), application,
+                        FindAndReplaceOptions.options().upsert());
+                counts[0]++;
+            }
+            // Only if nothing was pushed since the read; entries are only ever appended
+            unsets.updateOne(Query.query(Criteria.where("_id").is(opportunity.getId())
+                    .and("applicants").size(applicants.size())), new Update().unset("applicants"));
+        }
+        inserts.execute();
+        // Only drop the embedded copies once every application in the batch is stored
+        long unset = unsets.execute().getModifiedCount();
+        counts[1] += batch.size() - unset;
+    }
+
+    /**
+     * Derives a stable ObjectId for the i-th embedded applicant, so re-running
+     * the job overwrites rather than duplicates, while keeping every _id in the
+     * collection the same BSON type for keyset pagination.
+     */
+    private static String migratedId(String opportunityId, int index) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5")
+                    .digest((opportunityId + "-" + index).getBytes(StandardCharsets.UTF_8));
+            return new ObjectId(Arrays.copyOf(digest, 12)).toHexString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cache.LookupCache;
+import com.example.demo.cache.LookupCacheMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Conditional, compressed responses for listing endpoints that clients poll.
+ *
+ * Each response carries an ETag made from the listed collection's
+ * {@link ContentVersions version}. A request whose {@code If-None-Match}
+ * still matches gets 304 before any query runs. Otherwise the page is
+ * serialized once per version, path, cursor and page size, gzipped if large
+ * enough, and later requests for the same page are answered from those bytes.
+ * Other query parameters are not part of the key, so they cannot multiply the
+ * cached copies of a page. Requests with neither {@code after} nor
+ * {@code limit} get the largest page and are not cached; they are still
+ * answered with 304 while the client's copy is current.
+ *
+ * While this node's version of the collection is not
+ * {@link ContentVersions#isShared shared}, it could mean different data on
+ * another node, so responses are built fresh and sent without an ETag.
+ */
+@Component
+public class ListingResponses {
+
+    private static final String GZIP = "gzip";
+
+    @Autowired
+    private ContentVersions contentVersions;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    @Qualifier("listingPageCache")
+    private LookupCache<String, RenderedPage> pageCache;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${listing.compression.min-bytes:1024}")
+    private int compressMinBytes;
+
+    private Counter notModified;
+    private Counter bytesSent;
+    private Counter bytesSavedByCompression;
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.ifAvailable(registry -> {
+            LookupCacheMetrics.bind(registry, "listingPages", pageCache);
+            notModified = Counter.builder("listing.not.modified").register(registry);
+            bytesSent = Counter.builder("listing.bytes.sent").baseUnit("bytes").register(registry);
+            bytesSavedByCompression = Counter.builder("listing.bytes.saved")
+                    .baseUnit("bytes").tag("reason", "compression").register(registry);
+        });
+    }
+
+    /**
+     * Answers a listing request from the client's copy, the page cache, or the
+     * loader, in that order.
+     *
+     * @param request The request, for its path and its conditional and
+     *                encoding headers.
+     * @param type    The entity type the listing reads.
+     * @param after   The cursor the loader pages from, or {@code null}.
+     * @param limit   The page size the loader was asked for, or {@code null}.
+     * @param loader  Builds the response; anything but 200 is passed through
+     *                without caching.
+     * @return The response.
+     */
+    public ResponseEntity<?> respond(HttpServletRequest request, Class<?> type, String after, Integer limit,
+            Supplier<ResponseEntity<?>> loader) {
+        String collection = mongoTemplate.getCollectionName(type);
+        // Read before the data, so the page is at least as new as its version
+        long version = contentVersions.current(collection);
+        boolean shared = contentVersions.isShared(collection);
+        String etag = shared ? etag(collection, version) : null;
+        if (etag != null && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return notModified(etag);
+        }
+        if (!shared || (after == null && limit == null)) {
+            ResponseEntity<?> response = loader.get();
+            return response.getStatusCode() == HttpStatus.OK
+                    ? send(render(response), etag, acceptsGzip(request))
+                    : response;
+        }
+        ResponseEntity<?>[] passThrough = new ResponseEntity<?>[1];
+        RenderedPage page = pageCache.get(cacheKey(request, after, limit, version), key -> {
+            ResponseEntity<?> response = loader.get();
+            if (response.getStatusCode() != HttpStatus.OK) {
+                passThrough[0] = response;
+                return null;
+            }
+            return render(response);
+        });
+        return page == null ? passThrough[0] : send(page, etag, acceptsGzip(request));
+    }
+
+    /**
+     * Reactive form of {@link #respond}. The 304 check is the same; pages are
+     * serialized per request rather than cached.
+     */
+    public Mono<ResponseEntity<?>> respondAsync(HttpServletRequest request, Class<?> type,
+            Supplier<Mono<ResponseEntity<?>>> loader) {
+        String collection = mongoTemplate.getCollectionName(type);
+        long version = contentVersions.current(collection);
+        String etag = contentVersions.isShared(collection) ? etag(collection, version) : null;
+        if (etag != null && matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return Mono.just(notModified(etag));
+        }
+        boolean gzip = acceptsGzip(request);
+        return loader.get().<ResponseEntity<?>>map(response -> response.getStatusCode() == HttpStatus.OK
+                ? send(render(response), etag, gzip)
+                : response);
+    }
+
+    private ResponseEntity<?> notModified(String etag) {
+        if (notModified != null) {
+            notModified.increment();
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache())
+                .build();
+    }
+
+    // No ETag when etag is null
+    private ResponseEntity<byte[]> send(RenderedPage page, String etag, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(page.headers);
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] body = page.json;
+        if (gzip && page.gzipped != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            body = page.gzipped;
+            if (bytesSavedByCompression != null) {
+                bytesSavedByCompression.increment(page.json.length - page.gzipped.length);
+            }
+        }
+        if (bytesSent != null) {
+            bytesSent.increment(body.length);
+        }
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    private RenderedPage render(ResponseEntity<?> response) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] gzipped = null;
+        if (json.length >= compressMinBytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Only worth sending if it actually got smaller
+            if (out.size() < json.length) {
+                gzipped = out.toByteArray();
+            }
+        }
+        return new RenderedPage(json, gzipped, response.getHeaders());
+    }
+
+    private static String etag(String collection, long version) {
+        return "W/\"" + collection + "-" + version + "\"";
+    }
+
+    // Only what the loader reads, normalized so equivalent requests share one entry
+    private static String cacheKey(HttpServletRequest request, String after, Integer limit, long version) {
+        return request.getRequestURI() + "?after=" + (after == null ? "" : after)
+                + "&limit=" + MongoCursorPager.pageSize(after, limit) + "@" + version;
+    }
+
+    // Weak comparison, as If-None-Match requires
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate) || stripWeak(candidate).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.split(",")) {
+            List<String> parts = List.of(coding.split(";"));
+            String name = parts.get(0).trim();
+            if (!GZIP.equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            boolean refused = parts.stream().skip(1).map(String::trim)
+                    .anyMatch(param -> param.matches("q=0(\\.0*)?"));
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One serialized page, plus its gzipped form if that is smaller.
+     */
+    public static final class RenderedPage {
+        private final byte[] json;
+        private final byte[] gzipped;
+        private final HttpHeaders headers;
+
+        private RenderedPage(byte[] json, byte[] gzipped, HttpHeaders headers) {
+            this.json = json;
+            this.gzipped = gzipped;
+            this.headers = headers;
+        }
+    }
+}
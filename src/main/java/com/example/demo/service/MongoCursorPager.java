@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+/**
+ * Keyset pagination and NDJSON streaming over Mongo collections ordered by
+ * {@code _id}, so listing endpoints need not materialize a whole collection.
+ *
+ * A request with neither {@code after} nor {@code limit} gets the first
+ * {@value #MAX_PAGE_SIZE} documents, with {@value #NEXT_CURSOR_HEADER} set if
+ * there are more, so no request loads a whole collection onto the heap.
+ * Clients that need everything follow the cursor or use the NDJSON stream.
+ */
+@Component
+public class MongoCursorPager {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON = "application/x-ndjson";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final int STREAM_BATCH_SIZE = 256;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Returns one page of documents after the given cursor as a JSON array. The
+     * cursor for the following page, if any, is sent in the
+     * {@value #NEXT_CURSOR_HEADER} header.
+     *
+     * @param query  The base query, including any field projection.
+     * @param type   The mapped document type.
+     * @param after  The {@code _id} of the last document of the previous page,
+     *               or {@code null} for the first page.
+     * @param limit  The requested page size, capped at {@value #MAX_PAGE_SIZE},
+     *               or {@code null} for {@value #DEFAULT_PAGE_SIZE} when a
+     *               cursor is given and {@value #MAX_PAGE_SIZE} otherwise.
+     * @param idOf   Extracts the document ID.
+     * @param mapper Maps each document to its response representation.
+     * @return The page response.
+     */
+    public <T, R> ResponseEntity<?> page(Query query, Class<T> type, String after, Integer limit,
+            Function<T, String> idOf, Function<T, R> mapper) {
+        return page(query, type, mongoTemplate.getCollectionName(type), after, limit, idOf, mapper);
+    }
+
+    /**
+     * Same as {@link #page(Query, Class, String, Integer, Function, Function)}
+     * over a collection other than the type's own, such as its archive.
+     */
+    public <T, R> ResponseEntity<?> page(Query query, Class<T> type, String collection, String after, Integer limit,
+            Function<T, String> idOf, Function<T, R> mapper) {
+        int pageSize = applyKeyset(query, after, limit);
+        List<T> documents = mongoTemplate.find(query, type, collection);
+        HttpHeaders headers = new HttpHeaders();
+        if (documents.size() > pageSize) {
+            documents = documents.subList(0, pageSize);
+            headers.set(NEXT_CURSOR_HEADER, idOf.apply(documents.get(pageSize - 1)));
+        }
+        List<R> page = new ArrayList<>(documents.size());
+        for (T document : documents) {
+            page.add(mapper.apply(document));
+        }
+        return new ResponseEntity<>(page, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Streams every matching document as newline-delimited JSON straight from a
+     * Mongo cursor, so memory use does not depend on the collection size.
+     *
+     * @param query  The query, including any field projection.
+     * @param type   The mapped document type.
+     * @param mapper Maps each document to its response representation.
+     * @return The streaming response.
+     */
+    public <T, R> ResponseEntity<StreamingResponseBody> stream(Query query, Class<T> type, Function<T, R> mapper) {
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        StreamingResponseBody body = out -> {
+            try (Stream<T> documents = mongoTemplate.stream(query, type);
+                    SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                int written = 0;
+                for (T document : (Iterable<T>) documents::iterator) {
+                    writer.write(mapper.apply(document));
+                    if (++written % STREAM_BATCH_SIZE == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+                if (written > 0) {
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Restricts a query to one keyset page, fetching one extra document to
+     * detect whether another page follows. A first request without a limit
+     * gets the largest page, since clients written before paging expect one
+     * response to hold as much as possible.
+     *
+     * @param query The query to restrict.
+     * @param after The cursor, or {@code null} for the first page.
+     * @param limit The requested page size.
+     * @return The effective page size.
+     */
+    public static int applyKeyset(Query query, String after, Integer limit) {
+        query.with(Sort.by(Sort.Direction.ASC, "_id"));
+        int pageSize = pageSize(after, limit);
+        if (hasCursor(after)) {
+            query.addCriteria(Criteria.where("_id").gt(toId(after)));
+        }
+        query.limit(pageSize + 1);
+        return pageSize;
+    }
+
+    /**
+     * @param after The cursor, or {@code null} for the first page.
+     * @param limit The requested page size, or {@code null}.
+     * @return The page size {@link #applyKeyset} uses for these parameters.
+     */
+    public static int pageSize(String after, Integer limit) {
+        if (limit != null) {
+            return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        }
+        return hasCursor(after) ? DEFAULT_PAGE_SIZE : MAX_PAGE_SIZE;
+    }
+
+    private static boolean hasCursor(String after) {
+        return after != null && !after.isEmpty();
+    }
+
+    private static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
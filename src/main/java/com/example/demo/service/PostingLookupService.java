@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.LookupCache;
+import com.example.demo.cache.LookupCacheMetrics;
+import com.example.demo.dto.PostingSummary;
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.repository.CollabRequestRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cached lookups of opportunity and collaboration summaries for the apply and
+ * listing paths. Writers must call the matching {@code invalidate} method.
+ */
+@Service
+public class PostingLookupService {
+
+    @Autowired
+    @Qualifier("opportunitySummaryCache")
+    private LookupCache<String, PostingSummary> opportunityCache;
+    @Autowired
+    @Qualifier("collaborationSummaryCache")
+    private LookupCache<String, PostingSummary> collaborationCache;
+    @Autowired
+    private ApplicationService applicationService;
+    @Autowired
+    private CollabRequestRepository collabRequestRepository;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @PostConstruct
+    public void bindMetrics() {
+        meterRegistry.ifAvailable(registry -> {
+            LookupCacheMetrics.bind(registry, "opportunities", opportunityCache);
+            LookupCacheMetrics.bind(registry, "collaborations", collaborationCache);
+        });
+    }
+
+    /**
+     * @param opportunityId The opportunity ID.
+     * @return The opportunity summary, or {@code null} if it does not exist.
+     */
+    public PostingSummary findOpportunity(String opportunityId) {
+        return opportunityCache.get(opportunityId, id -> {
+            PostOpportunity opportunity = applicationService.findNotificationTarget(id);
+            return opportunity == null ? null
+                    : new PostingSummary(opportunity.getId(), opportunity.getTitle(), opportunity.getEmail());
+        });
+    }
+
+    /**
+     * @param collabId The collaboration ID.
+     * @return The collaboration summary, or {@code null} if it does not exist.
+     */
+    public PostingSummary findCollaboration(String collabId) {
+        return collaborationCache.get(collabId, id -> {
+            Collaboration collaboration = collabRequestRepository.findNotificationTarget(id);
+            return collaboration == null ? null
+                    : new PostingSummary(collaboration.getId(), collaboration.getTitle(), collaboration.getEmail());
+        });
+    }
+
+    public void invalidateOpportunity(String opportunityId) {
+        opportunityCache.invalidate(opportunityId);
+    }
+
+    public void invalidateCollaboration(String collabId) {
+        collaborationCache.invalidate(collabId);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.SearchHit;
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.PostOpportunity;
+import com.example.demo.search.InvertedIndex;
+
+/**
+ * Full-text search over collaborations and opportunities. Each kind of posting
+ * has its own {@link InvertedIndex}; the collaboration write paths update it
+ * as they go, and both indexes are rebuilt from a Mongo snapshot at startup and
+ * periodically, which also picks up opportunity writes made elsewhere. Updates
+ * made while a rebuild reads its snapshot are recorded and replayed onto the
+ * new index before it replaces the old one, so none are lost in the swap.
+ */
+@Service
+public class PostingSearchService {
+
+    public static final String COLLABORATIONS = "collaborations";
+    public static final String OPPORTUNITIES = "opportunities";
+
+    private static final Logger log = LoggerFactory.getLogger(PostingSearchService.class);
+
+    private static final String[] BODY_FIELDS = { "description", "contentCategory", "collaborationType", "location",
+            "type" };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final IndexSlot collaborationIndex = new IndexSlot();
+    private final IndexSlot opportunityIndex = new IndexSlot();
+
+    /**
+     * Builds both indexes from a snapshot of the collections, replacing the
+     * current ones only once the new ones are complete.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    @Scheduled(initialDelayString = "${search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        rebuild(collaborationIndex, Collaboration.class);
+        rebuild(opportunityIndex, PostOpportunity.class);
+        log.info("Search index rebuilt with {} collaborations and {} opportunities in {} ms",
+                collaborationIndex.current.size(), opportunityIndex.current.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    public void indexCollaboration(Collaboration collaboration) {
+        Document document = toDocument(collaboration);
+        collaborationIndex.update(target -> index(target, document));
+    }
+
+    public void removeCollaboration(String collabId) {
+        collaborationIndex.update(target -> target.remove(collabId));
+    }
+
+    public void indexOpportunity(PostOpportunity opportunity) {
+        Document document = toDocument(opportunity);
+        opportunityIndex.update(target -> index(target, document));
+    }
+
+    public void removeOpportunity(String opportunityId) {
+        opportunityIndex.update(target -> target.remove(opportunityId));
+    }
+
+    /**
+     * Ranks postings by BM25 and loads the requested page of them.
+     *
+     * @param query  The free-text query.
+     * @param type   {@link #COLLABORATIONS}, {@link #OPPORTUNITIES}, or
+     *               {@code null} for both.
+     * @param offset The number of ranked hits to skip.
+     * @param limit  The page size.
+     * @return Up to {@code limit + 1} hits; the extra one only signals that
+     *         another page exists.
+     */
+    public List<SearchHit> search(String query, String type, int offset, int limit) {
+        int wanted = offset + limit + 1;
+        List<SearchHit> ranked = new ArrayList<>();
+        if (type == null || COLLABORATIONS.equals(type)) {
+            for (InvertedIndex.Hit hit : collaborationIndex.current.search(query, wanted)) {
+                ranked.add(new SearchHit(COLLABORATIONS, hit.getId(), hit.getScore(), null));
+            }
+        }
+        if (type == null || OPPORTUNITIES.equals(type)) {
+            for (InvertedIndex.Hit hit : opportunityIndex.current.search(query, wanted)) {
+                ranked.add(new SearchHit(OPPORTUNITIES, hit.getId(), hit.getScore(), null));
+            }
+        }
+        if (ranked.size() <= offset) {
+            return List.of();
+        }
+        ranked.sort(Comparator.comparing(SearchHit::getScore).reversed());
+        List<SearchHit> page = ranked.subList(offset, Math.min(ranked.size(), wanted));
+
+        Map<String, Object> collaborations = load(page, COLLABORATIONS, Collaboration.class,
+                Collaboration::getId);
+        Map<String, Object> opportunities = load(page, OPPORTUNITIES, PostOpportunity.class,
+                PostOpportunity::getId);
+        List<SearchHit> results = new ArrayList<>(page.size());
+        for (SearchHit hit : page) {
+            Object posting = (COLLABORATIONS.equals(hit.getType()) ? collaborations : opportunities).get(hit.getId());
+            // Skips postings deleted since the last rebuild
+            if (posting != null) {
+                results.add(new SearchHit(hit.getType(), hit.getId(), hit.getScore(), posting));
+            }
+        }
+        return results;
+    }
+
+    private void rebuild(IndexSlot slot, Class<?> type) {
+        slot.startRecording();
+        InvertedIndex rebuilt;
+        try {
+            rebuilt = buildIndex(type);
+        } catch (RuntimeException e) {
+            slot.stopRecording();
+            throw e;
+        }
+        slot.replace(rebuilt);
+    }
+
+    private InvertedIndex buildIndex(Class<?> type) {
+        InvertedIndex index = new InvertedIndex();
+        Query query = new Query();
+        query.fields().include("title");
+        for (String field : BODY_FIELDS) {
+            query.fields().include(field);
+        }
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type))) {
+            documents.forEach(document -> index(index, document));
+        }
+        return index;
+    }
+
+    private Document toDocument(Object posting) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(posting, document);
+        return document;
+    }
+
+    private static void index(InvertedIndex index, Document document) {
+        StringBuilder body = new StringBuilder();
+        for (String field : BODY_FIELDS) {
+            Object value = document.get(field);
+            if (value != null) {
+                body.append(value).append(' ');
+            }
+        }
+        index.put(String.valueOf(document.get("_id")), document.getString("title"), body.toString());
+    }
+
+    private <T> Map<String, Object> load(List<SearchHit> page, String type, Class<T> postingClass,
+            Function<T, String> idOf) {
+        List<String> ids = new ArrayList<>();
+        for (SearchHit hit : page) {
+            if (type.equals(hit.getType())) {
+                ids.add(hit.getId());
+            }
+        }
+        Map<String, Object> postings = new HashMap<>();
+        if (ids.isEmpty()) {
+            return postings;
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        if (postingClass == Collaboration.class) {
+            // Listings leave out the embedded requests, which only the owner needs
+            query.fields().exclude("collabs");
+        }
+        for (T posting : mongoTemplate.find(query, postingClass)) {
+            postings.put(idOf.apply(posting), posting);
+        }
+        return postings;
+    }
+
+    /**
+     * The live index for one kind of posting. While a rebuild is reading its
+     * snapshot, every update is applied to the live index and also recorded
+     * for the replacement.
+     */
+    private static final class IndexSlot {
+        private volatile InvertedIndex current = new InvertedIndex();
+        // Guarded by this; non-null only while a rebuild is running
+        private List<Consumer<InvertedIndex>> recorded;
+
+        synchronized void update(Consumer<InvertedIndex> change) {
+            change.accept(current);
+            if (recorded != null) {
+                recorded.add(change);
+            }
+        }
+
+        synchronized void startRecording() {
+            recorded = new ArrayList<>();
+        }
+
+        synchronized void stopRecording() {
+            recorded = null;
+        }
+
+        /**
+         * Replays what was recorded onto the rebuilt index, in order, then
+         * makes it the live one. Replaying is safe even for updates the
+         * snapshot already reflects, since puts and removes are idempotent.
+         */
+        synchronized void replace(InvertedIndex rebuilt) {
+            for (Consumer<InvertedIndex> change : recorded) {
+                change.accept(rebuilt);
+            }
+            recorded = null;
+            current = rebuilt;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.Collaboration;
+import com.example.demo.model.User;
+
+/**
+ * One-off job that removes the full {@link Collaboration} copies embedded in
+ * {@link User} documents. Before a user's copies are dropped, the matching
+ * collaborations get the user as {@code creatorId} if they do not have one, so
+ * the per-creator query still finds them.
+ */
+@Component
+public class UserCollaborationCompaction {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCollaborationCompaction.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private ContentVersions contentVersions;
+
+    @Value("${users.collaboration-compaction.enabled:true}")
+    private boolean enabled;
+    @Value("${users.collaboration-compaction.batch-size:100}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("collaborations").exists(true));
+        query.fields().include("collaborations._id");
+        query.cursorBatchSize(batchSize);
+
+        long compacted = 0;
+        List<User> batch = new ArrayList<>(batchSize);
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            for (User user : (Iterable<User>) users::iterator) {
+                batch.add(user);
+                if (batch.size() == batchSize) {
+                    compactBatch(batch);
+                    compacted += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            compactBatch(batch);
+            compacted += batch.size();
+        }
+        if (compacted > 0) {
+            // Listed collaborations may have gained a creatorId
+            contentVersions.bump(Collaboration.class);
+            log.info("Removed embedded collaborations from {} users", compacted);
+        }
+    }
+
+    private void compactBatch(List<User> batch) {
+        BulkOperations creators = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Collaboration.class);
+        List<String> userIds = new ArrayList<>(batch.size());
+        boolean hasUpdates = false;
+        for (User user : batch) {
+            userIds.add(user.getId());
+            if (user.getCollaborations() == null) {
+                continue;
+            }
+            List<String> collabIds = new ArrayList<>();
+            for (Collaboration collaboration : user.getCollaborations()) {
+                if (collaboration.getId() != null) {
+                    collabIds.add(collaboration.getId());
+                }
+            }
+            if (!collabIds.isEmpty()) {
+                creators.updateMulti(Query.query(Criteria.where("_id").in(collabIds).and("creatorId").exists(false)),
+                        new Update().set("creatorId", user.getId()));
+                hasUpdates = true;
+            }
+        }
+        if (hasUpdates) {
+            creators.execute();
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(userIds)),
+                new Update().unset("collaborations"), User.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.UserSummary;
+import com.example.demo.model.User;
+
+/**
+ * Projected user reads for the auth and profile endpoints, so they never load
+ * more of a {@link User} document than they return.
+ */
+@Service
+public class UserLookupService {
+
+    private static final String[] LOGIN_FIELDS = concat(UserSummary.FIELDS, "password");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Loads the stored password together with the summary fields returned on
+     * a successful login.
+     *
+     * @param email The login email.
+     * @return The partially loaded user, or {@code null} if none matches.
+     */
+    public User findLoginCandidate(String email) {
+        Query query = Query.query(Criteria.where("email").is(email));
+        query.fields().include(LOGIN_FIELDS);
+        return mongoTemplate.findOne(query, User.class);
+    }
+
+    /**
+     * @param id The user ID.
+     * @return The user's summary, or {@code null} if the user does not exist.
+     */
+    public UserSummary findSummary(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include(UserSummary.FIELDS);
+        User user = mongoTemplate.findOne(query, User.class);
+        return user == null ? null : UserSummary.from(user);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(User.class).ensureIndex(new Index("email", Sort.Direction.ASC));
+    }
+
+    private static String[] concat(String[] fields, String extra) {
+        String[] all = Arrays.copyOf(fields, fields.length + 1);
+        all[fields.length] = extra;
+        return all;
+    }
+}
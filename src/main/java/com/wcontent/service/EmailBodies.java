@@ -0,0 +1,337 @@
+package com.wcontent.service;
+
+import com.example.demo.model.Applicant;
+import com.example.demo.model.CollabRequest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the HTML bodies of the emails {@link EmailService} sends, timing
+ * each render against its template name. Kept apart from sending so the
+ * rendering can be exercised without a mail server.
+ */
+final class EmailBodies {
+
+    private static final String DEPLOYED_URL = "https://wcontent-app-in.vercel.app";
+
+    // Each email type is compiled once; only the {{slots}} are filled per message
+    private static final EmailTemplate WELCOME_TEMPLATE = EmailTemplate.compile("welcome", getEmailTemplate(
+            "Welcome to Wcontent!",
+            "<p>Hi there,</p>"
+                    + "<p>Thank you for joining Wcontent, the ultimate ecosystem designed to empower content creators like you. We're thrilled to have you on board!</p>"
+                    + "<p>You can now access all of our powerful features. Here's a glimpse of what you can do:</p>"
+                    + "<ul style='padding-left: 20px;'>"
+                    + "<li style='margin-bottom: 10px;'><strong>Generate Content:</strong> Use our AI tools to brainstorm topics, headlines, and outlines.</li>"
+                    + "<li style='margin-bottom: 10px;'><strong>Find Opportunities:</strong> Explore our marketplace for paid gigs and sponsorships.</li>"
+                    + "<li style='margin-bottom: 10px;'><strong>Collaborate:</strong> Connect with other creators to grow your audience together.</li>"
+                    + "</ul>"
+                    + getCtaButton("Go to Your Dashboard", DEPLOYED_URL + "/dashboard")));
+
+    private static final EmailTemplate LOGIN_TEMPLATE = EmailTemplate.compile("login", getEmailTemplate(
+            "Login Successful",
+            "<p>Hi there,</p>"
+                    + "<p>This is a confirmation that your Wcontent account was just accessed. If this was you, you can safely ignore this email.</p>"
+                    + "<p>If you do not recognize this activity, we recommend securing your account immediately by changing your password.</p>"
+                    + getCtaButton("Go to Your Dashboard", DEPLOYED_URL + "/dashboard")));
+
+    private static final EmailTemplate NEW_APPLICATION_TEMPLATE = EmailTemplate.compile("new_application", getEmailTemplate(
+            "New Application Received!",
+            "<p>Great news! A new creator has applied for your opportunity, <strong>\"{{opportunityTitle}}\"</strong>.</p>"
+                    + "<h3>Applicant Details:</h3>"
+                    + "<table border='0' cellpadding='5' cellspacing='0' style='width: 100%; border-collapse: collapse;'>"
+                    + "<tr><td style='width: 100px;'><strong>Name:</strong></td><td>{{name}}</td></tr>"
+                    + "<tr><td><strong>Email:</strong></td><td>{{email}}</td></tr>"
+                    + "<tr><td><strong>Portfolio:</strong></td><td><a href='{{resumeUrl}}' style='color: #008080; text-decoration: none;'>View Portfolio</a></td></tr>"
+                    + "<tr><td><strong>Date:</strong></td><td>{{date}}</td></tr>"
+                    + "</table>"
+                    + getCtaButton("View All Applications", DEPLOYED_URL + "/dashboard/opportunities/myopportunities")));
+
+    private static final EmailTemplate NEW_APPLICATIONS_DIGEST_TEMPLATE = EmailTemplate.compile("new_applications_digest", getEmailTemplate(
+            "New Applications Received!",
+            "<p>Great news! {{count}} creators have applied for your opportunity, <strong>\"{{opportunityTitle}}\"</strong>.</p>"
+                    + "<h3>Applicants:</h3>"
+                    + "<table border='0' cellpadding='5' cellspacing='0' style='width: 100%; border-collapse: collapse;'>"
+                    + "<tr><td><strong>Name</strong></td><td><strong>Email</strong></td><td><strong>Portfolio</strong></td><td><strong>Date</strong></td></tr>"
+                    + "{{{rows}}}"
+                    + "</table>"
+                    + "<p style='color: #888;'>{{more}}</p>"
+                    + getCtaButton("View All Applications", DEPLOYED_URL + "/dashboard/opportunities/myopportunities")));
+
+    // One applicant row of the digest, rendered once per applicant into the {{{rows}}} slot
+    private static final EmailTemplate APPLICATION_DIGEST_ROW_TEMPLATE = EmailTemplate.compile("application_digest_row",
+            "<tr style='border-top: 1px solid #333;'><td>{{name}}</td><td>{{email}}</td>"
+                    + "<td><a href='{{resumeUrl}}' style='color: #008080; text-decoration: none;'>View Portfolio</a></td>"
+                    + "<td>{{date}}</td></tr>");
+
+    private static final EmailTemplate APPLICATION_CONFIRMATION_TEMPLATE = EmailTemplate.compile("application_confirmation", getEmailTemplate(
+            "Application Received!",
+            "<p>Hi there,</p>"
+                    + "<p>Thank you for applying for the opportunity, <strong>\"{{opportunityTitle}}\"</strong> on Wcontent.</p>"
+                    + "<p>Your application has been successfully submitted to the opportunity poster. You can track the status of all your applications from your dashboard.</p>"
+                    + getCtaButton("View My Applications", DEPLOYED_URL + "/dashboard/opportunities/myapps")));
+
+    private static final EmailTemplate NEW_COLLAB_REQUEST_TEMPLATE = EmailTemplate.compile("new_collab_request", getEmailTemplate(
+            "New Collab Request!",
+            "<p>Someone is excited to collaborate with you! You've received a new request for your post, <strong>\"{{collabTitle}}\"</strong>.</p>"
+                    + "<h3>Requester Details:</h3>"
+                    + "<table border='0' cellpadding='5' cellspacing='0' style='width: 100%; border-collapse: collapse;'>"
+                    + "<tr><td style='width: 100px;'><strong>Name:</strong></td><td>{{name}}</td></tr>"
+                    + "<tr><td><strong>Email:</strong></td><td>{{email}}</td></tr>"
+                    + "<tr><td><strong>Date:</strong></td><td>{{date}}</td></tr>"
+                    + "</table>"
+                    + "<h3 style='margin-top: 20px;'>Message:</h3>"
+                    + "<p style='padding: 15px; background-color: #2a2a2a; border-radius: 5px; border: 1px solid #444;'><em>\"{{message}}\"</em></p>"
+                    + getCtaButton("View Collaboration Requests", DEPLOYED_URL + "/dashboard/collabs/myrequests")));
+
+    private static final EmailTemplate NEW_COLLAB_REQUESTS_DIGEST_TEMPLATE = EmailTemplate.compile("new_collab_requests_digest", getEmailTemplate(
+            "New Collab Requests!",
+            "<p>People are excited to collaborate with you! You've received {{count}} new requests for your post, <strong>\"{{collabTitle}}\"</strong>.</p>"
+                    + "<h3>Requests:</h3>"
+                    + "<table border='0' cellpadding='5' cellspacing='0' style='width: 100%; border-collapse: collapse;'>"
+                    + "<tr><td><strong>Name</strong></td><td><strong>Email</strong></td><td><strong>Date</strong></td><td><strong>Message</strong></td></tr>"
+                    + "{{{rows}}}"
+                    + "</table>"
+                    + "<p style='color: #888;'>{{more}}</p>"
+                    + getCtaButton("View Collaboration Requests", DEPLOYED_URL + "/dashboard/collabs/myrequests")));
+
+    // One request row of the digest, rendered once per request into the {{{rows}}} slot
+    private static final EmailTemplate COLLAB_REQUEST_DIGEST_ROW_TEMPLATE = EmailTemplate.compile("collab_request_digest_row",
+            "<tr style='border-top: 1px solid #333;'><td>{{name}}</td><td>{{email}}</td><td>{{date}}</td>"
+                    + "<td><em>\"{{message}}\"</em></td></tr>");
+
+    private static final EmailTemplate COLLAB_REQUEST_CONFIRMATION_TEMPLATE = EmailTemplate.compile("collab_request_confirmation", getEmailTemplate(
+            "Request Sent!",
+            "<p>Hi there,</p>"
+                    + "<p>Your collaboration request for <strong>\"{{collabTitle}}\"</strong> has been sent.</p>"
+                    + "<p>The creator has been notified. We hope this leads to an amazing partnership! You can manage your collaboration posts and requests from your dashboard.</p>"
+                    + getCtaButton("Go to Dashboard", DEPLOYED_URL + "/dashboard")));
+
+    // Digests list at most this many rows and summarise the rest
+    private static final int MAX_DIGEST_ROWS = 100;
+
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM d, yyyy");
+
+    private volatile String cachedYear;
+    private volatile long cachedYearEndsAt;
+
+    private final Map<EmailTemplate, Timer> renderTimers = new IdentityHashMap<>();
+
+    /**
+     * @param registry Where the render timers are registered; an empty
+     *                 composite registry makes them no-ops.
+     */
+    EmailBodies(MeterRegistry registry) {
+        for (EmailTemplate template : List.of(WELCOME_TEMPLATE, LOGIN_TEMPLATE, NEW_APPLICATION_TEMPLATE,
+                NEW_APPLICATIONS_DIGEST_TEMPLATE, APPLICATION_DIGEST_ROW_TEMPLATE, APPLICATION_CONFIRMATION_TEMPLATE,
+                NEW_COLLAB_REQUEST_TEMPLATE, NEW_COLLAB_REQUESTS_DIGEST_TEMPLATE, COLLAB_REQUEST_DIGEST_ROW_TEMPLATE,
+                COLLAB_REQUEST_CONFIRMATION_TEMPLATE)) {
+            renderTimers.put(template, Timer.builder("email.render")
+                    .description("Time to render an email body from its template")
+                    .tag("template", template.getName())
+                    .register(registry));
+        }
+    }
+
+    byte[] welcome() {
+        return render(WELCOME_TEMPLATE, "year", currentYear());
+    }
+
+    byte[] login() {
+        return render(LOGIN_TEMPLATE, "year", currentYear());
+    }
+
+    byte[] newApplication(Applicant application, String opportunityTitle) {
+        return render(NEW_APPLICATION_TEMPLATE,
+                "opportunityTitle", opportunityTitle,
+                "name", application.getName(),
+                "email", application.getEmail(),
+                "resumeUrl", application.getResumeUrl(),
+                "date", formatDate(application.getApplicationDate()),
+                "year", currentYear());
+    }
+
+    /**
+     * @param applicants Two or more applicants; only the first
+     *                   {@value #MAX_DIGEST_ROWS} are listed.
+     */
+    byte[] newApplicationsDigest(List<Applicant> applicants, String opportunityTitle) {
+        int listed = Math.min(applicants.size(), MAX_DIGEST_ROWS);
+        ByteArrayOutputStream rows = new ByteArrayOutputStream(listed * 256);
+        for (Applicant applicant : applicants.subList(0, listed)) {
+            rows.writeBytes(render(APPLICATION_DIGEST_ROW_TEMPLATE,
+                    "name", applicant.getName(),
+                    "email", applicant.getEmail(),
+                    "resumeUrl", applicant.getResumeUrl(),
+                    "date", formatDate(applicant.getApplicationDate())));
+        }
+        return render(NEW_APPLICATIONS_DIGEST_TEMPLATE,
+                "count", String.valueOf(applicants.size()),
+                "opportunityTitle", opportunityTitle,
+                "rows", rows.toByteArray(),
+                "more", moreLine(applicants.size() - listed, "applicants"),
+                "year", currentYear());
+    }
+
+    byte[] applicationConfirmation(String opportunityTitle) {
+        return render(APPLICATION_CONFIRMATION_TEMPLATE,
+                "opportunityTitle", opportunityTitle,
+                "year", currentYear());
+    }
+
+    byte[] newCollabRequest(CollabRequest request, String collabTitle) {
+        return render(NEW_COLLAB_REQUEST_TEMPLATE,
+                "collabTitle", collabTitle,
+                "name", request.getRequesterName(),
+                "email", request.getRequesterEmail(),
+                "date", formatDate(request.getAppliedDate()),
+                "message", request.getMessage(),
+                "year", currentYear());
+    }
+
+    /**
+     * @param requests Two or more requests; only the first
+     *                 {@value #MAX_DIGEST_ROWS} are listed.
+     */
+    byte[] newCollabRequestsDigest(List<CollabRequest> requests, String collabTitle) {
+        int listed = Math.min(requests.size(), MAX_DIGEST_ROWS);
+        ByteArrayOutputStream rows = new ByteArrayOutputStream(listed * 256);
+        for (CollabRequest request : requests.subList(0, listed)) {
+            rows.writeBytes(render(COLLAB_REQUEST_DIGEST_ROW_TEMPLATE,
+                    "name", request.getRequesterName(),
+                    "email", request.getRequesterEmail(),
+                    "date", formatDate(request.getAppliedDate()),
+                    "message", request.getMessage()));
+        }
+        return render(NEW_COLLAB_REQUESTS_DIGEST_TEMPLATE,
+                "count", String.valueOf(requests.size()),
+                "collabTitle", collabTitle,
+                "rows", rows.toByteArray(),
+                "more", moreLine(requests.size() - listed, "requests"),
+                "year", currentYear());
+    }
+
+    byte[] collabRequestConfirmation(String collabTitle) {
+        return render(COLLAB_REQUEST_CONFIRMATION_TEMPLATE,
+                "collabTitle", collabTitle,
+                "year", currentYear());
+    }
+
+    /**
+     * @param remaining The number of digest entries left out of the table.
+     * @param noun      What the entries are, e.g. "applicants".
+     * @return The note shown under a truncated digest table, or an empty string.
+     */
+    private static String moreLine(int remaining, String noun) {
+        return remaining > 0 ? "...and " + remaining + " more " + noun + " on your dashboard." : "";
+    }
+
+    /**
+     * Renders a template and records the time taken against its name.
+     *
+     * @param template       The compiled template.
+     * @param namesAndValues Alternating slot names and values.
+     * @return The rendered HTML as UTF-8 bytes.
+     */
+    private byte[] render(EmailTemplate template, Object... namesAndValues) {
+        long start = System.nanoTime();
+        byte[] html = template.render(namesAndValues);
+        renderTimers.get(template).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return html;
+    }
+
+    /**
+     * Returns the current year for the footer, recomputed only once the cached
+     * year has ended.
+     *
+     * @return The current year as a string.
+     */
+    private String currentYear() {
+        if (System.currentTimeMillis() >= cachedYearEndsAt) {
+            LocalDate today = LocalDate.now();
+            cachedYear = String.valueOf(today.getYear());
+            cachedYearEndsAt = today.plusYears(1).withDayOfYear(1).atStartOfDay(ZoneId.systemDefault())
+                    .toInstant().toEpochMilli();
+        }
+        return cachedYear;
+    }
+
+    /**
+     * Generates the template source for a standardized email. The footer year
+     * is left as the {{year}} slot.
+     *
+     * @param title The title to display in the email header.
+     * @param body  The main HTML body content.
+     * @return A complete HTML email template source.
+     */
+    private static String getEmailTemplate(String title, String body) {
+        return "<!DOCTYPE html><html lang='en'><head><meta charset='UTF-8'><meta name='viewport' content='width=device-width, initial-scale=1.0'>"
+                + "<style>a{color: #008080; text-decoration: none;} p{margin: 10px 0;}</style></head>"
+                + "<body style='margin: 0; padding: 0; background-color: #121212; font-family: Arial, sans-serif;'>"
+                + "<table border='0' cellpadding='0' cellspacing='0' width='100%'><tr><td style='padding: 20px 0;'>"
+                + "<table align='center' border='0' cellpadding='0' cellspacing='0' width='600' style='max-width: 600px; border-collapse: collapse; background-color: #1E1E1E; border: 1px solid #333; border-radius: 10px;'>"
+                // Header
+                + "<tr><td align='center' style='padding: 30px 20px 20px 20px;'>"
+                + "<img src='cid:logo' alt='Wcontent Logo' style='width: 80px; height: auto;'/>"
+                + "<h1 style='color: #ffffff; margin: 10px 0 0 0; font-size: 24px;'>" + title + "</h1>"
+                + "</td></tr>"
+                // Content
+                + "<tr><td style='padding: 20px 30px; color: #E0E0E0; font-size: 16px; line-height: 1.6;'>"
+                + body
+                + "</td></tr>"
+                // Footer
+                + "<tr><td style='padding: 30px; text-align: center; font-size: 12px; color: #888; border-top: 1px solid #333;'>"
+                + "<p style='margin:0;'>© {{year}}"
+                + " Wcontent. All rights reserved.</p><p style='margin:5px 0 0 0;'>If you did not request this email, please ignore it.</p>"
+                + "</td></tr></table></td></tr></table></body></html>";
+    }
+
+    /**
+     * Generates a styled HTML call-to-action button.
+     *
+     * @param text The text for the button.
+     * @param url  The URL the button links to.
+     * @return A string containing the HTML for the button.
+     */
+    private static String getCtaButton(String text, String url) {
+        return "<table border='0' cellpadding='0' cellspacing='0' style='margin: 30px 0;'><tr>"
+                + "<td align='center'>"
+                + "<a href='" + url
+                + "' target='_blank' style='background-color: #008080; color: #ffffff; padding: 12px 25px; text-decoration: none; border-radius: 5px; font-weight: bold; display: inline-block;'> "
+                + text + "</a></td></tr></table>";
+    }
+
+    /**
+     * Formats a date string into a more readable format.
+     *
+     * @param dateString The date string (e.g., from an ISO format).
+     * @return A formatted date string (e.g., "Oct 1, 2023").
+     */
+    static String formatDate(String dateString) {
+        if (dateString == null || dateString.isEmpty()) {
+            return "N/A";
+        }
+        try {
+            // Handles ISO_LOCAL_DATE_TIME or similar formats from new Date().toISOString()
+            LocalDate date = LocalDate.parse(dateString, DateTimeFormatter.ISO_DATE_TIME);
+            return date.format(DISPLAY_DATE_FORMAT);
+        } catch (Exception e) {
+            try {
+                // Fallback for simple date format like YYYY-MM-DD
+                LocalDate date = LocalDate.parse(dateString, DateTimeFormatter.ISO_LOCAL_DATE);
+                return date.format(DISPLAY_DATE_FORMAT);
+            } catch (Exception ex) {
+                // If parsing fails, return the original string or a default
+                return dateString;
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.wcontent.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A precompiled HTML email template. The source is parsed once into literal
+ * segments, stored as UTF-8 bytes, and named slots written as
+ * <code>{{name}}</code> (HTML-escaped) or <code>{{{name}}}</code> (inserted
+ * as-is). Rendering copies the literal bytes and encodes only the slot values,
+ * producing the UTF-8 body that goes into the message as it is.
+ *
+ * Each thread renders into its own reusable buffer, so the only allocation
+ * per render is the final copy of the result. A buffer that grew past
+ * {@value #MAX_RETAINED_BUFFER} bytes for an unusually large email is
+ * dropped afterwards rather than kept.
+ */
+final class EmailTemplate {
+
+    private static final int INITIAL_BUFFER = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+    private static final ThreadLocal<RenderBuffer> BUFFERS = ThreadLocal.withInitial(RenderBuffer::new);
+
+    private final String name;
+    private final byte[][] literals;
+    private final String[] slots;
+    private final boolean[] rawSlots;
+    private final int literalBytes;
+
+    private EmailTemplate(String name, byte[][] literals, String[] slots, boolean[] rawSlots) {
+        this.name = name;
+        this.literals = literals;
+        this.slots = slots;
+        this.rawSlots = rawSlots;
+        int total = 0;
+        for (byte[] literal : literals) {
+            total += literal.length;
+        }
+        this.literalBytes = total;
+    }
+
+    /**
+     * Parses a template source into literal segments and slots.
+     *
+     * @param name   The template name, used to tag its metrics.
+     * @param source The template source.
+     * @return The compiled template.
+     */
+    static EmailTemplate compile(String name, String source) {
+        List<byte[]> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        List<Boolean> rawSlots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            boolean raw = source.startsWith("{{{", open);
+            String closeToken = raw ? "}}}" : "}}";
+            int nameStart = open + (raw ? 3 : 2);
+            int close = source.indexOf(closeToken, nameStart);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed template slot at offset " + open);
+            }
+            literals.add(source.substring(position, open).getBytes(StandardCharsets.UTF_8));
+            slots.add(source.substring(nameStart, close).trim());
+            rawSlots.add(raw);
+            position = close + closeToken.length();
+        }
+        literals.add(source.substring(position).getBytes(StandardCharsets.UTF_8));
+
+        boolean[] raw = new boolean[rawSlots.size()];
+        for (int i = 0; i < raw.length; i++) {
+            raw[i] = rawSlots.get(i);
+        }
+        return new EmailTemplate(name, literals.toArray(new byte[0][]), slots.toArray(new String[0]), raw);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param namesAndValues Alternating slot names and values. A value is a
+     *                       {@code String}, or a {@code byte[]} of UTF-8 HTML
+     *                       already rendered by another template, which is
+     *                       copied as-is. Missing or null values render as
+     *                       nothing.
+     * @return The rendered HTML as UTF-8 bytes.
+     */
+    byte[] render(Object... namesAndValues) {
+        RenderBuffer buffer = BUFFERS.get();
+        buffer.reset(literalBytes + 64 * slots.length);
+        try {
+            for (int i = 0; i < slots.length; i++) {
+                buffer.write(literals[i], 0, literals[i].length);
+                Object value = lookup(slots[i], namesAndValues);
+                if (value instanceof byte[] html) {
+                    buffer.write(html, 0, html.length);
+                } else if (value != null) {
+                    buffer.writeUtf8(value.toString(), !rawSlots[i]);
+                }
+            }
+            byte[] tail = literals[slots.length];
+            buffer.write(tail, 0, tail.length);
+            return buffer.toByteArray();
+        } finally {
+            buffer.trim();
+        }
+    }
+
+    private static Object lookup(String slot, Object[] namesAndValues) {
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            if (slot.equals(namesAndValues[i])) {
+                return namesAndValues[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Growable, unsynchronized byte buffer that encodes characters to UTF-8
+     * directly, optionally HTML-escaping them, without intermediate strings.
+     * Only ever used by the thread that owns it.
+     */
+    private static final class RenderBuffer {
+
+        private byte[] bytes = new byte[INITIAL_BUFFER];
+        private int size;
+
+        void reset(int expectedSize) {
+            size = 0;
+            ensureCapacity(expectedSize);
+        }
+
+        void trim() {
+            if (bytes.length > MAX_RETAINED_BUFFER) {
+                bytes = new byte[INITIAL_BUFFER];
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        void write(int b) {
+            if (size == bytes.length) {
+                ensureCapacity(size + 1);
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] source, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+
+        void writeUtf8(String value, boolean escapeHtml) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (escapeHtml && writeEscaped(c)) {
+                    continue;
+                }
+                if (c < 0x80) {
+                    write(c);
+                } else if (c < 0x800) {
+                    write(0xC0 | (c >> 6));
+                    write(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    write(0xF0 | (codePoint >> 18));
+                    write(0x80 | ((codePoint >> 12) & 0x3F));
+                    write(0x80 | ((codePoint >> 6) & 0x3F));
+                    write(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    write('?');
+                } else {
+                    write(0xE0 | (c >> 12));
+                    write(0x80 | ((c >> 6) & 0x3F));
+                    write(0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private boolean writeEscaped(char c) {
+            switch (c) {
+                case '&':
+                    writeAscii("&amp;");
+                    return true;
+                case '<':
+                    writeAscii("&lt;");
+                    return true;
+                case '>':
+                    writeAscii("&gt;");
+                    return true;
+                case '"':
+                    writeAscii("&quot;");
+                    return true;
+                case '\'':
+                    writeAscii("&#39;");
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void writeAscii(String ascii) {
+            for (int i = 0; i < ascii.length(); i++) {
+                write(ascii.charAt(i));
+            }
+        }
+    }
+}
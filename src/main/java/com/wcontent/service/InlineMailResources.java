@@ -0,0 +1,101 @@
+package com.wcontent.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import jakarta.activation.DataHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeMultipart;
+import jakarta.mail.internet.PreencodedMimeBodyPart;
+import jakarta.mail.util.ByteArrayDataSource;
+
+/**
+ * Static inline attachments shared by every outgoing email. Each resource is
+ * read from the classpath and base64-encoded once at startup; a message only
+ * gets a small body part that points at the shared, already encoded bytes.
+ */
+@Component
+public class InlineMailResources {
+
+    private List<InlineResource> resources = Collections.emptyList();
+
+    @PostConstruct
+    public void load() throws IOException {
+        List<InlineResource> loaded = new ArrayList<>();
+        loaded.add(InlineResource.load("logo", "static/images/wcontent-logo.png", "image/png"));
+        resources = Collections.unmodifiableList(loaded);
+    }
+
+    /**
+     * Adds every static inline resource to a message's related multipart.
+     *
+     * @param related The multipart/related container of the message.
+     * @throws MessagingException If a body part cannot be created.
+     */
+    public void attachTo(MimeMultipart related) throws MessagingException {
+        for (InlineResource resource : resources) {
+            related.addBodyPart(resource.newBodyPart());
+        }
+    }
+
+    /**
+     * Returns the total encoded size of the static resources attached to each
+     * message.
+     *
+     * @return The encoded size in bytes.
+     */
+    public long getEncodedBytesPerMessage() {
+        long total = 0;
+        for (InlineResource resource : resources) {
+            total += resource.encoded.length;
+        }
+        return total;
+    }
+
+    private static final class InlineResource {
+        private final String contentId;
+        private final String fileName;
+        private final String contentType;
+        private final byte[] encoded;
+
+        private InlineResource(String contentId, String fileName, String contentType, byte[] encoded) {
+            this.contentId = contentId;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.encoded = encoded;
+        }
+
+        static InlineResource load(String contentId, String location, String contentType) throws IOException {
+            ClassPathResource resource = new ClassPathResource(location);
+            byte[] raw;
+            try (InputStream in = resource.getInputStream()) {
+                raw = in.readAllBytes();
+            }
+            byte[] encoded = Base64.getMimeEncoder().encodeToString(raw).getBytes(StandardCharsets.US_ASCII);
+            return new InlineResource(contentId, resource.getFilename(), contentType, encoded);
+        }
+
+        /**
+         * Body parts are per message because Jakarta Mail mutates part headers
+         * when a message is saved; the encoded payload itself is shared.
+         */
+        PreencodedMimeBodyPart newBodyPart() throws MessagingException {
+            PreencodedMimeBodyPart part = new PreencodedMimeBodyPart("base64");
+            part.setDataHandler(new DataHandler(new ByteArrayDataSource(encoded, contentType)));
+            part.setDisposition(Part.INLINE);
+            part.setContentID("<" + contentId + ">");
+            part.setFileName(fileName);
+            return part;
+        }
+    }
+}
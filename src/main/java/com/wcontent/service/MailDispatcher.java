@@ -0,0 +1,543 @@
+package com.wcontent.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.config.DownstreamLimits;
+import com.example.demo.config.ExecutionModeConfig;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Bounded in-process outbound mail queue. Callers enqueue fully built messages
+ * and return immediately; a fixed pool of workers drains the queue in batches,
+ * sending each batch through a single {@link JavaMailSender#send(MimeMessage...)}
+ * call so one SMTP connection is reused for the whole batch. Failed messages
+ * are retried with exponential backoff and end up in a bounded dead-letter
+ * store once their attempts are exhausted.
+ *
+ * The queue is durable: every message is written to {@code mail.spool.dir}
+ * as an {@code .eml} file before {@link #enqueue} returns, and the file is
+ * deleted once the message is delivered. A dead-lettered message's file moves
+ * to {@code mail.dead-letter.dir} and is deleted when it is delivered or
+ * evicted. Both directories are queued again on the next start, so nothing a
+ * caller has handed over is lost to a restart or crash; a message that was
+ * sent just before a crash may be sent twice.
+ */
+@Component
+public class MailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    @Autowired
+    private JavaMailSender mailSender;
+    @Autowired
+    private DownstreamLimits downstreamLimits;
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${mail.queue.capacity:1000}")
+    private int queueCapacity;
+    @Value("${mail.queue.workers:2}")
+    private int workerCount;
+    @Value("${mail.queue.batch-size:20}")
+    private int batchSize;
+    @Value("${mail.retry.max-attempts:4}")
+    private int maxAttempts;
+    @Value("${mail.retry.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+    @Value("${mail.dead-letter.capacity:500}")
+    private int deadLetterCapacity;
+    @Value("${mail.spool.dir:./data/mail-spool}")
+    private String spoolLocation;
+    @Value("${mail.dead-letter.dir:./data/mail-dead-letters}")
+    private String deadLetterLocation;
+    @Value("${" + ExecutionModeConfig.MODE_PROPERTY + ":platform}")
+    private String executionMode;
+
+    private BlockingQueue<PendingMail> queue;
+    private ExecutorService workers;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+    private Timer sendTimer;
+    private Path spoolDir;
+    private Path deadLetterDir;
+
+    private final ConcurrentLinkedDeque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger deadLetterSize = new AtomicInteger();
+    // Messages waiting on the retry scheduler, so a shutdown can still deliver or dead-letter them
+    private final Set<PendingMail> scheduledRetries = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong deadLetteredCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicInteger queueHighWaterMark = new AtomicInteger();
+
+    @PostConstruct
+    public void start() throws IOException {
+        spoolDir = Paths.get(spoolLocation);
+        deadLetterDir = Paths.get(deadLetterLocation);
+        Files.createDirectories(spoolDir);
+        Files.createDirectories(deadLetterDir);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                ExecutionModeConfig.workerThreads("platform", "mail-retry"));
+        workers = Executors.newFixedThreadPool(workerCount,
+                ExecutionModeConfig.workerThreads(executionMode, "mail-worker"));
+        bindMetrics(meterRegistry.getIfAvailable(CompositeMeterRegistry::new));
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drainLoop);
+        }
+        int spooled = restoreSpool();
+        if (spooled > 0) {
+            log.info("Re-queued {} unsent messages left from the last run", spooled);
+        }
+        int restored = restoreDeadLetters();
+        if (restored > 0) {
+            log.info("Re-queued {} of {} dead letters left from the last run", replayDeadLetters(), restored);
+        }
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        sendTimer = Timer.builder("email.send")
+                .description("Time to hand one batch to the SMTP server")
+                .register(registry);
+        Gauge.builder("email.queue.depth", this, MailDispatcher::getQueueDepth)
+                .register(registry);
+        Gauge.builder("email.queue.remaining", this, MailDispatcher::getQueueRemainingCapacity)
+                .register(registry);
+        Gauge.builder("email.dead-letter.size", this, MailDispatcher::getDeadLetterSize)
+                .register(registry);
+        FunctionCounter.builder("email.sent", this, MailDispatcher::getSentCount)
+                .register(registry);
+        FunctionCounter.builder("email.retries", this, MailDispatcher::getRetriedCount)
+                .register(registry);
+        FunctionCounter.builder("email.failures", this, MailDispatcher::getDeadLetteredCount)
+                .tag("stage", "delivery")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        // Pending retries get one last attempt with the final drain instead of being dropped
+        for (PendingMail mail : scheduledRetries) {
+            if (scheduledRetries.remove(mail) && !queue.offer(mail)) {
+                deadLetter(mail, "Mail dispatcher stopped before retry");
+            }
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Mail dispatcher stopped with {} unsent messages", queue.size());
+            PendingMail mail;
+            while ((mail = queue.poll()) != null) {
+                deadLetter(mail, "Mail dispatcher stopped before sending");
+            }
+        }
+    }
+
+    /**
+     * Writes a message to the spool and queues it for asynchronous delivery,
+     * without waiting for the queue.
+     *
+     * @param message The fully built message.
+     * @return {@code true} if the message was queued, {@code false} if the queue
+     *         is full and the message was moved to the dead-letter store.
+     */
+    public boolean enqueue(MimeMessage message) {
+        PendingMail mail = new PendingMail(message);
+        mail.file = persist(message, spoolDir);
+        if (!queue.offer(mail)) {
+            rejectedCount.incrementAndGet();
+            deadLetter(mail, "Mail queue full");
+            return false;
+        }
+        enqueuedCount.incrementAndGet();
+        queueHighWaterMark.accumulateAndGet(queue.size(), Math::max);
+        return true;
+    }
+
+    /**
+     * Re-queues every message in the dead-letter store with a fresh attempt
+     * count.
+     *
+     * @return The number of messages that were re-queued.
+     */
+    public int replayDeadLetters() {
+        int replayed = 0;
+        DeadLetter deadLetter;
+        while ((deadLetter = deadLetters.pollFirst()) != null) {
+            deadLetterSize.decrementAndGet();
+            // Keeps its dead-letter file, so it is still on disk until delivered
+            PendingMail mail = new PendingMail(deadLetter.message);
+            mail.file = deadLetter.file;
+            if (!queue.offer(mail)) {
+                rejectedCount.incrementAndGet();
+                deadLetter(mail, "Mail queue full on replay");
+                break;
+            }
+            enqueuedCount.incrementAndGet();
+            replayed++;
+        }
+        return replayed;
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        return Collections.unmodifiableList(new ArrayList<>(deadLetters));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    public int getQueueHighWaterMark() {
+        return queueHighWaterMark.get();
+    }
+
+    public int getDeadLetterSize() {
+        return deadLetterSize.get();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getDeadLetteredCount() {
+        return deadLetteredCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    private void drainLoop() {
+        List<PendingMail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMail first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected failure in mail worker", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingMail> batch) {
+        MimeMessage[] messages = new MimeMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = batch.get(i).message;
+        }
+        batchCount.incrementAndGet();
+        try {
+            downstreamLimits.withSmtpPermit(() -> sendTimer.record(() -> mailSender.send(messages)));
+            sentCount.addAndGet(messages.length);
+            for (PendingMail mail : batch) {
+                delivered(mail);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            retryAll(batch, e);
+        } catch (IllegalStateException e) {
+            retryAll(batch, e);
+        } catch (MailSendException e) {
+            // Only the messages listed as failed need another attempt
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                retryAll(batch, e);
+                return;
+            }
+            for (PendingMail mail : batch) {
+                Exception cause = failed.get(mail.message);
+                if (cause != null) {
+                    scheduleRetry(mail, cause);
+                } else {
+                    sentCount.incrementAndGet();
+                    delivered(mail);
+                }
+            }
+        } catch (MailException e) {
+            retryAll(batch, e);
+        }
+    }
+
+    private void retryAll(List<PendingMail> batch, Exception cause) {
+        for (PendingMail mail : batch) {
+            scheduleRetry(mail, cause);
+        }
+    }
+
+    private void scheduleRetry(PendingMail mail, Exception cause) {
+        mail.attempts++;
+        if (mail.attempts >= maxAttempts || !running) {
+            deadLetter(mail, cause.getMessage());
+            return;
+        }
+        retriedCount.incrementAndGet();
+        long backoff = initialBackoffMs << (mail.attempts - 1);
+        long jitter = ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        scheduledRetries.add(mail);
+        try {
+            retryScheduler.schedule(() -> {
+                if (!scheduledRetries.remove(mail)) {
+                    // Already handed over by stop()
+                    return;
+                }
+                if (!queue.offer(mail)) {
+                    rejectedCount.incrementAndGet();
+                    deadLetter(mail, "Mail queue full on retry");
+                }
+            }, backoff + jitter, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // stop() shut the scheduler down after the running check above
+            if (scheduledRetries.remove(mail)) {
+                deadLetter(mail, "Mail dispatcher stopped before retry");
+            }
+        }
+    }
+
+    private void deadLetter(PendingMail mail, String reason) {
+        deadLetteredCount.incrementAndGet();
+        mail.file = mail.file == null ? persist(mail.message, deadLetterDir) : moveToDeadLetters(mail.file);
+        deadLetters.addLast(new DeadLetter(mail.message, mail.attempts, reason, mail.file));
+        // Keep the store bounded by evicting the oldest entries
+        if (deadLetterSize.incrementAndGet() > deadLetterCapacity) {
+            DeadLetter evicted = deadLetters.pollFirst();
+            if (evicted != null) {
+                deadLetterSize.decrementAndGet();
+                delete(evicted.file);
+            }
+        }
+        log.warn("Email to {} moved to dead-letter store after {} attempt(s): {}", recipientsOf(mail.message),
+                mail.attempts, reason);
+    }
+
+    private void delivered(PendingMail mail) {
+        if (mail.file != null) {
+            delete(mail.file);
+            mail.file = null;
+        }
+    }
+
+    /**
+     * Writes a message to the spool or dead-letter directory.
+     *
+     * @return The file, or {@code null} if it could not be written and the
+     *         message only lives in memory.
+     */
+    private Path persist(MimeMessage message, Path dir) {
+        try {
+            Path file = Files.createTempFile(dir, System.currentTimeMillis() + "-", ".eml.tmp");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                message.writeTo(out);
+            }
+            Path target = file.resolveSibling(file.getFileName().toString().replace(".eml.tmp", ".eml"));
+            return Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | MessagingException e) {
+            log.error("Failed to write an email to {}, it will not survive a restart", dir, e);
+            return null;
+        }
+    }
+
+    private Path moveToDeadLetters(Path file) {
+        if (file.getParent().equals(deadLetterDir)) {
+            return file;
+        }
+        try {
+            return Files.move(file, deadLetterDir.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Still in the spool, so it is queued again on the next start either way
+            log.warn("Could not move {} to the dead-letter directory: {}", file, e.getMessage());
+            return file;
+        }
+    }
+
+    /**
+     * Queues the messages spooled by earlier runs that were never delivered,
+     * oldest first.
+     */
+    private int restoreSpool() throws IOException {
+        int restored = 0;
+        for (Path file : listMessages(spoolDir)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                PendingMail mail = new PendingMail(mailSender.createMimeMessage(in));
+                mail.file = file;
+                if (!queue.offer(mail)) {
+                    rejectedCount.incrementAndGet();
+                    deadLetter(mail, "Mail queue full on restore");
+                    continue;
+                }
+                enqueuedCount.incrementAndGet();
+                restored++;
+            } catch (IOException | MailException e) {
+                log.warn("Skipping unreadable spooled email {}: {}", file, e.getMessage());
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * Loads the dead letters written by earlier runs, oldest first.
+     */
+    private int restoreDeadLetters() throws IOException {
+        int restored = 0;
+        for (Path file : listMessages(deadLetterDir)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                deadLetters.addLast(new DeadLetter(mailSender.createMimeMessage(in), 0, "Restored on start", file));
+                deadLetterSize.incrementAndGet();
+                restored++;
+            } catch (IOException | MailException e) {
+                log.warn("Skipping unreadable dead letter {}: {}", file, e.getMessage());
+            }
+        }
+        return restored;
+    }
+
+    private static List<Path> listMessages(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.eml")) {
+            stream.forEach(files::add);
+        }
+        // Names start with the time they were written
+        files.sort(null);
+        return files;
+    }
+
+    private static void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String recipientsOf(MimeMessage message) {
+        try {
+            return String.valueOf(message.getHeader("To", ","));
+        } catch (MessagingException e) {
+            return "unknown recipient";
+        }
+    }
+
+    private static final class PendingMail {
+        private final MimeMessage message;
+        private int attempts;
+        // The copy on disk, in the spool or the dead-letter directory
+        private Path file;
+
+        private PendingMail(MimeMessage message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     * A message that could not be delivered, kept for inspection or replay.
+     */
+    public static final class DeadLetter {
+        private final MimeMessage message;
+        private final int attempts;
+        private final String reason;
+        private final Path file;
+        private final long failedAt = System.currentTimeMillis();
+
+        private DeadLetter(MimeMessage message, int attempts, String reason, Path file) {
+            this.message = message;
+            this.attempts = attempts;
+            this.reason = reason;
+            this.file = file;
+        }
+
+        public String getRecipients() {
+            return recipientsOf(message);
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public long getFailedAt() {
+            return failedAt;
+        }
+    }
+}
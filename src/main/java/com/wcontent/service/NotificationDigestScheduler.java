@@ -0,0 +1,402 @@
+package com.wcontent.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.Applicant;
+import com.example.demo.model.CollabRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Coalesces owner notifications. New applications and collaboration requests
+ * are buffered per recipient and posting; once the first buffered entry is
+ * older than the digest window, the owner receives a single digest email
+ * listing all of them.
+ *
+ * Buffered entries are appended to a local journal file as they arrive and
+ * the journal is rewritten without the sent entries on every flush, so
+ * pending notifications survive a restart. Entries leave the journal only
+ * once their digest is in the {@link MailDispatcher} spool, which keeps it on
+ * disk until it is delivered.
+ */
+@Component
+public class NotificationDigestScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDigestScheduler.class);
+
+    static final String APPLICATION = "application";
+    static final String COLLAB_REQUEST = "collab_request";
+
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** A window of 0 or less sends every notification immediately. */
+    @Value("${notifications.digest.window-seconds:900}")
+    private long windowSeconds;
+    @Value("${notifications.digest.journal:./data/notification-digest.journal}")
+    private String journalLocation;
+    /** Owners listed here always receive their notifications immediately. */
+    @Value("${notifications.digest.immediate-recipients:}")
+    private String[] immediateRecipients;
+
+    private final Object lock = new Object();
+    // Guarded by lock; insertion order keeps the journal rewrite stable
+    private final Map<String, List<PendingNotification>> pending = new LinkedHashMap<>();
+    private Set<String> immediate;
+    private Path journal;
+    private BufferedWriter journalWriter;
+
+    @PostConstruct
+    public void start() throws IOException {
+        immediate = new HashSet<>();
+        for (String recipient : immediateRecipients) {
+            if (!recipient.isBlank()) {
+                immediate.add(recipient.trim().toLowerCase());
+            }
+        }
+        journal = Paths.get(journalLocation);
+        if (journal.getParent() != null) {
+            Files.createDirectories(journal.getParent());
+        }
+        synchronized (lock) {
+            int restored = replayJournal();
+            if (restored > 0) {
+                log.info("Restored {} pending owner notifications from {}", restored, journal);
+            }
+            openJournal();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        synchronized (lock) {
+            journalWriter.close();
+        }
+    }
+
+    /**
+     * Queues a new-application notification for the opportunity owner.
+     *
+     * @param ownerEmail       The email of the opportunity poster.
+     * @param applicant        The applicant.
+     * @param opportunityTitle The title of the opportunity.
+     * @param opportunityId    The ID of the opportunity.
+     */
+    public void newApplication(String ownerEmail, Applicant applicant, String opportunityTitle,
+            String opportunityId) {
+        newApplications(ownerEmail, Collections.singletonList(applicant), opportunityTitle, opportunityId);
+    }
+
+    /**
+     * Queues new-application notifications for the opportunity owner.
+     *
+     * @param ownerEmail       The email of the opportunity poster.
+     * @param applicants       The applicants.
+     * @param opportunityTitle The title of the opportunity.
+     * @param opportunityId    The ID of the opportunity.
+     */
+    public void newApplications(String ownerEmail, List<Applicant> applicants, String opportunityTitle,
+            String opportunityId) {
+        if (sendsImmediately(ownerEmail)) {
+            emailService.sendNewApplicationsDigest(ownerEmail, applicants, opportunityTitle, opportunityId);
+            return;
+        }
+        List<PendingNotification> entries = new ArrayList<>(applicants.size());
+        for (Applicant applicant : applicants) {
+            PendingNotification entry = new PendingNotification(APPLICATION, ownerEmail, opportunityId,
+                    opportunityTitle);
+            entry.setApplicant(applicant);
+            entries.add(entry);
+        }
+        buffer(entries);
+    }
+
+    /**
+     * Queues a new collaboration request notification for the collaboration
+     * owner.
+     *
+     * @param ownerEmail  The email of the collaboration poster.
+     * @param request     The collaboration request.
+     * @param collabTitle The title of the collaboration.
+     * @param collabId    The ID of the collaboration.
+     */
+    public void newCollabRequest(String ownerEmail, CollabRequest request, String collabTitle, String collabId) {
+        if (sendsImmediately(ownerEmail)) {
+            emailService.sendNewCollabRequestNotification(ownerEmail, request, collabTitle, collabId);
+            return;
+        }
+        PendingNotification entry = new PendingNotification(COLLAB_REQUEST, ownerEmail, collabId, collabTitle);
+        entry.setCollabRequest(request);
+        buffer(Collections.singletonList(entry));
+    }
+
+    /**
+     * Sends a digest for every recipient and posting whose window has closed.
+     * A digest that cannot be queued stays pending and is retried on the next
+     * flush. Sent entries leave the journal only after their digest has been
+     * queued, so a crash mid-flush resends rather than loses them.
+     */
+    @Scheduled(fixedDelayString = "${notifications.digest.flush-interval-ms:30000}")
+    public void flushDue() {
+        long dueBefore = System.currentTimeMillis() - windowSeconds * 1000;
+        List<List<PendingNotification>> due = new ArrayList<>();
+        synchronized (lock) {
+            Iterator<List<PendingNotification>> buckets = pending.values().iterator();
+            while (buckets.hasNext()) {
+                List<PendingNotification> bucket = buckets.next();
+                if (bucket.get(0).getQueuedAt() <= dueBefore) {
+                    due.add(bucket);
+                    buckets.remove();
+                }
+            }
+            if (due.isEmpty()) {
+                return;
+            }
+        }
+        List<List<PendingNotification>> failed = new ArrayList<>();
+        for (List<PendingNotification> bucket : due) {
+            try {
+                sendDigest(bucket);
+            } catch (RuntimeException e) {
+                PendingNotification first = bucket.get(0);
+                log.error("Failed to send {} digest for {} to {}, retrying on the next flush", first.getKind(),
+                        first.getPostingId(), first.getOwnerEmail(), e);
+                failed.add(bucket);
+            }
+        }
+        synchronized (lock) {
+            for (List<PendingNotification> bucket : failed) {
+                requeue(bucket);
+            }
+            compactJournal();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            int count = 0;
+            for (List<PendingNotification> bucket : pending.values()) {
+                count += bucket.size();
+            }
+            return count;
+        }
+    }
+
+    private boolean sendsImmediately(String ownerEmail) {
+        return windowSeconds <= 0 || immediate.contains(ownerEmail.toLowerCase());
+    }
+
+    private void buffer(List<PendingNotification> entries) {
+        synchronized (lock) {
+            try {
+                for (PendingNotification entry : entries) {
+                    journalWriter.write(objectMapper.writeValueAsString(entry));
+                    journalWriter.newLine();
+                }
+                // Flushed to the OS so the entries outlive a process restart
+                journalWriter.flush();
+            } catch (IOException e) {
+                log.error("Failed to journal {} owner notification(s), they will not survive a restart",
+                        entries.size(), e);
+            }
+            for (PendingNotification entry : entries) {
+                pending.computeIfAbsent(entry.bucketKey(), key -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    /**
+     * Puts a bucket that failed to send back in front of anything buffered
+     * for the same posting since, so it keeps its original deadline. Must be
+     * called holding the lock.
+     */
+    private void requeue(List<PendingNotification> bucket) {
+        String key = bucket.get(0).bucketKey();
+        List<PendingNotification> merged = new ArrayList<>(bucket);
+        List<PendingNotification> newer = pending.remove(key);
+        if (newer != null) {
+            merged.addAll(newer);
+        }
+        pending.put(key, merged);
+    }
+
+    private void sendDigest(List<PendingNotification> bucket) {
+        PendingNotification first = bucket.get(0);
+        if (APPLICATION.equals(first.getKind())) {
+            List<Applicant> applicants = new ArrayList<>(bucket.size());
+            for (PendingNotification entry : bucket) {
+                applicants.add(entry.getApplicant());
+            }
+            emailService.sendNewApplicationsDigest(first.getOwnerEmail(), applicants, first.getPostingTitle(),
+                    first.getPostingId());
+        } else {
+            List<CollabRequest> requests = new ArrayList<>(bucket.size());
+            for (PendingNotification entry : bucket) {
+                requests.add(entry.getCollabRequest());
+            }
+            emailService.sendNewCollabRequestsDigest(first.getOwnerEmail(), requests, first.getPostingTitle(),
+                    first.getPostingId());
+        }
+    }
+
+    private int replayJournal() throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        int restored = 0;
+        for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                PendingNotification entry = objectMapper.readValue(line, PendingNotification.class);
+                pending.computeIfAbsent(entry.bucketKey(), key -> new ArrayList<>()).add(entry);
+                restored++;
+            } catch (IOException e) {
+                // A torn last line from a crash mid-write is skipped rather than blocking startup
+                log.warn("Skipping unreadable notification journal entry: {}", e.getMessage());
+            }
+        }
+        return restored;
+    }
+
+    private void compactJournal() {
+        Path rewritten = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try {
+            journalWriter.close();
+            try (BufferedWriter writer = Files.newBufferedWriter(rewritten, StandardCharsets.UTF_8)) {
+                for (List<PendingNotification> bucket : pending.values()) {
+                    for (PendingNotification entry : bucket) {
+                        writer.write(objectMapper.writeValueAsString(entry));
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(rewritten, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to compact notification journal {}, sent entries may be resent after a restart",
+                    journal, e);
+        }
+        try {
+            openJournal();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot reopen notification journal " + journal, e);
+        }
+    }
+
+    private void openJournal() throws IOException {
+        journalWriter = Files.newBufferedWriter(journal, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * One buffered owner notification, as stored in the journal.
+     */
+    public static class PendingNotification {
+
+        private String kind;
+        private String ownerEmail;
+        private String postingId;
+        private String postingTitle;
+        private Applicant applicant;
+        private CollabRequest collabRequest;
+        private long queuedAt;
+
+        public PendingNotification() {
+        }
+
+        PendingNotification(String kind, String ownerEmail, String postingId, String postingTitle) {
+            this.kind = kind;
+            this.ownerEmail = ownerEmail;
+            this.postingId = postingId;
+            this.postingTitle = postingTitle;
+            this.queuedAt = System.currentTimeMillis();
+        }
+
+        String bucketKey() {
+            return kind + "|" + ownerEmail.toLowerCase() + "|" + postingId;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public void setKind(String kind) {
+            this.kind = kind;
+        }
+
+        public String getOwnerEmail() {
+            return ownerEmail;
+        }
+
+        public void setOwnerEmail(String ownerEmail) {
+            this.ownerEmail = ownerEmail;
+        }
+
+        public String getPostingId() {
+            return postingId;
+        }
+
+        public void setPostingId(String postingId) {
+            this.postingId = postingId;
+        }
+
+        public String getPostingTitle() {
+            return postingTitle;
+        }
+
+        public void setPostingTitle(String postingTitle) {
+            this.postingTitle = postingTitle;
+        }
+
+        public Applicant getApplicant() {
+            return applicant;
+        }
+
+        public void setApplicant(Applicant applicant) {
+            this.applicant = applicant;
+        }
+
+        public CollabRequest getCollabRequest() {
+            return collabRequest;
+        }
+
+        public void setCollabRequest(CollabRequest collabRequest) {
+            this.collabRequest = collabRequest;
+        }
+
+        public long getQueuedAt() {
+            return queuedAt;
+        }
+
+        public void setQueuedAt(long queuedAt) {
+            this.queuedAt = queuedAt;
+        }
+    }
+}